@@ -0,0 +1,59 @@
+package planetwars.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+/**
+ * Writes grid-shaped maps of any size for the benchmarks, since the maps in {@code graphs/} are all small.
+ * <p>
+ * Planets sit on a square grid, one per bucket, and are connected to their right and lower neighbors. Player 1's
+ * homeworld is in one corner and player 2's in the opposite one.
+ */
+final class BenchMaps {
+    private static final String GRAPHS_DIR = "graphs";
+
+    private BenchMaps() {
+    }
+
+    /**
+     * Gets the side of the square grid that holds the given number of planets.
+     */
+    public static int side(int planets) {
+        return (int) Math.ceil(Math.sqrt(planets));
+    }
+
+    /**
+     * Writes a map to a temporary file and returns its name in the form {@link Assets#loadGraph} expects.
+     */
+    public static String write(int planets, long seed) throws IOException {
+        Random random = new Random(seed);
+        int side = side(planets);
+        File file = File.createTempFile(String.format("bench-%d-", planets), ".dot");
+        file.deleteOnExit();
+
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println("graph g {");
+            for (int id = 0; id < planets; id++) {
+                String base = id == 0 ? "base = 1, " : id == planets - 1 ? "base = 2, " : "";
+                out.println(String.format("  %d [ %shabit = %d, size = %d, x = %d, y = %d ]",
+                        id, base, 1 + random.nextInt(10), 50 + random.nextInt(451), id % side, id / side));
+            }
+            for (int id = 0; id < planets; id++) {
+                if (id % side + 1 < side && id + 1 < planets) {
+                    out.println(String.format("  %d -- %d [ weight = %d ]", id, id + 1, 1 + random.nextInt(5)));
+                }
+                if (id + side < planets) {
+                    out.println(String.format("  %d -- %d [ weight = %d ]", id, id + side, 1 + random.nextInt(5)));
+                }
+            }
+            out.println("}");
+        }
+
+        String path = new File(GRAPHS_DIR).getAbsoluteFile().toPath().relativize(file.getAbsoluteFile().toPath()).toString();
+        String graph = path.substring(0, path.length() - ".dot".length());
+        Assets.getCompiledGraphFile(graph).deleteOnExit();
+        return graph;
+    }
+}
@@ -0,0 +1,25 @@
+package planetwars.core;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the engine benchmarks with the GC profiler, so every result comes with its allocation rate.
+ * <p>
+ * Run from the project root, since maps are loaded from {@code graphs/}. The {@code bench} source root needs
+ * jmh-core and jmh-generator-annprocess on the classpath, with annotation processing enabled.
+ * <p>
+ * Usage: {@code Benchmarks [regex]}, where the regex picks benchmarks by name and defaults to all of them.
+ */
+final class Benchmarks {
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "planetwars\\.core\\..*Benchmark")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
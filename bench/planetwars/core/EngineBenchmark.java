@@ -0,0 +1,77 @@
+package planetwars.core;
+
+import org.openjdk.jmh.annotations.*;
+import planetwars.publicapi.IPlanet;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole turns and snapshots on generated maps, with both players keeping {@link #shuttlesPerPlanet} shuttles per owned
+ * planet in the air.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+    /**
+     * Turns played before measuring, so that both players own a good part of the map.
+     */
+    private static final int SETTLE_TURNS = 200;
+
+    @Param({"16", "64", "256", "1024"})
+    public int planets;
+
+    @Param({"0", "2", "8"})
+    public int shuttlesPerPlanet;
+
+    private String graph;
+    private PlanetWars planetWars;
+
+    @Setup(Level.Trial)
+    public void writeMap() throws IOException {
+        this.graph = BenchMaps.write(this.planets, 1);
+    }
+
+    @Setup(Level.Iteration)
+    public void startGame() throws IOException {
+        this.planetWars = this.newGame();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopGame() {
+        this.planetWars.shutdown();
+    }
+
+    private PlanetWars newGame() throws IOException {
+        PlanetWars planetWars = new PlanetWars(new ShuttleLoadStrategy(this.shuttlesPerPlanet),
+                new ShuttleLoadStrategy(this.shuttlesPerPlanet), this.graph, 1);
+        for (int i = 0; i < SETTLE_TURNS && !planetWars.isOver(); i++) {
+            planetWars.gameTick();
+        }
+        return planetWars;
+    }
+
+    /**
+     * One turn, including the hand-off to the strategy thread. A game that ends mid-iteration is replaced, which is
+     * rare enough not to show in the average.
+     */
+    @Benchmark
+    public int gameTick() throws IOException {
+        if (this.planetWars.isOver()) {
+            this.planetWars.shutdown();
+            this.planetWars = this.newGame();
+        }
+        this.planetWars.gameTick();
+        return this.planetWars.getTurn();
+    }
+
+    @Benchmark
+    public List<IPlanet> getPlanetsSnapshot() {
+        return this.planetWars.getPlanetsSnapshot(InternalPlayer.PLAYER1);
+    }
+}
@@ -0,0 +1,78 @@
+package planetwars.core;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Checks that {@link RenderCache} draws planets and numbers pixel for pixel the way plain Java2D calls do: each owner's
+ * sprite from the atlas against drawing the sprite itself, and numbers from the cached digits against
+ * {@code drawString} in the label font, including their widths.
+ * <p>
+ * Draws onto the same kind of image the headless renderer uses. Run from the project root, since the sprites are
+ * loaded from {@code img/}; exits with status 1 if anything differs.
+ */
+final class LabelCheck {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 100;
+    private static final long[] NUMBERS = {0, 1, 7, 10, 42, 99, 100, 305, 1000, 4096, 65535, 123456789, Long.MAX_VALUE, -1, -250};
+
+    public static void main(String[] args) throws IOException {
+        RenderCache cache = new RenderCache(null);
+        int mismatches = 0;
+
+        for (InternalPlayer owner : InternalPlayer.values()) {
+            BufferedImage cached = blank();
+            Graphics2D g = cached.createGraphics();
+            cache.drawPlanet(g, owner, 20, 10);
+            g.dispose();
+
+            BufferedImage direct = blank();
+            g = direct.createGraphics();
+            g.drawImage(Assets.loadPlanet(owner), 20, 10, null);
+            g.dispose();
+
+            if (!samePixels(cached, direct)) {
+                mismatches++;
+                System.out.println(String.format("MISMATCH %s sprite", owner));
+            }
+        }
+
+        for (long number : NUMBERS) {
+            BufferedImage cached = blank();
+            Graphics2D g = cached.createGraphics();
+            cache.drawNumber(g, number, 10, 50);
+            g.dispose();
+
+            BufferedImage direct = blank();
+            g = direct.createGraphics();
+            g.setFont(RenderCache.LABEL_FONT);
+            g.setColor(Color.WHITE);
+            g.drawString(Long.toString(number), 10, 50);
+            FontMetrics metrics = g.getFontMetrics();
+            int width = metrics.stringWidth(Long.toString(number));
+            g.dispose();
+
+            if (!samePixels(cached, direct) || cache.getWidth(number) != width) {
+                mismatches++;
+                System.out.println(String.format("MISMATCH number %d: width %d, drawn %d wide", number, cache.getWidth(number), width));
+            }
+        }
+
+        System.out.println(String.format("%d sprites, %d numbers, %d mismatches", InternalPlayer.values().length, NUMBERS.length, mismatches));
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static BufferedImage blank() {
+        return new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static boolean samePixels(BufferedImage image1, BufferedImage image2) {
+        return Arrays.equals(image1.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH), image2.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH));
+    }
+}
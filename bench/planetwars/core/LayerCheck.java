@@ -0,0 +1,86 @@
+package planetwars.core;
+
+import planetwars.strategies.RandomMoveStrategy;
+import planetwars.strategies.StrategyOne;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+
+/**
+ * Checks that what {@link PlanetWarsFrame} composes from its cached layers, with the planet layer only updated where
+ * planets changed, looks exactly like what it draws from scratch.
+ * <p>
+ * A seeded game is played on each map while frames are drawn as the game window would. Every few frames the layers are
+ * drawn on their own, then thrown away and drawn again from scratch, and the two are compared pixel for pixel. The
+ * shuttles in flight are left out of both, since where they are depends on the clock. Run from the project root
+ * with {@code -Djava.awt.headless=true} if there is no display; exits with status 1 if any frame differs.
+ * <p>
+ * Usage: {@code LayerCheck [map...]}, defaulting to a few maps of different sizes.
+ */
+final class LayerCheck {
+    private static final int MAX_FRAMES = 6000;
+    private static final int CHECK_EVERY = 37;
+
+    public static void main(String[] args) throws FileNotFoundException {
+        String[] graphs = args.length > 0 ? args : new String[]{"graph", "k4", "graph_7", "graph_50"};
+        int frames = 0;
+        int mismatches = 0;
+        for (String graph : graphs) {
+            PlanetWars game = new PlanetWars(new RandomMoveStrategy(), new StrategyOne(), graph, 11);
+            PlanetWarsFrame frame = new PlanetWarsFrame(GameWindow.PLANET_WARS_WIDTH, GameWindow.PLANET_WARS_HEIGHT, graph, game);
+            BufferedImage incremental = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_RGB);
+            BufferedImage full = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_RGB);
+            int mismatched = 0;
+            try {
+                for (int i = 0; i < MAX_FRAMES && !game.isOver(); i++) {
+                    frame.action();
+                    if (i % PlanetWarsFrame.FRAMES_PER_TURN == PlanetWarsFrame.FRAMES_PER_TURN - 1) {
+                        game.gameTick();
+                        frame.captureState();
+                    }
+                    draw(frame, incremental, false);
+
+                    if (i % CHECK_EVERY == 0) {
+                        frames++;
+                        draw(frame, incremental, true);
+                        frame.invalidateLayers();
+                        draw(frame, full, true);
+                        if (!samePixels(incremental, full)) {
+                            mismatched++;
+                        }
+                    }
+                }
+            } finally {
+                game.shutdown();
+            }
+
+            if (mismatched > 0) {
+                mismatches += mismatched;
+                System.out.println(String.format("MISMATCH %s: %d frames differ", graph, mismatched));
+            }
+        }
+
+        System.out.println(String.format("%d frames compared, %d mismatches", frames, mismatches));
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void draw(PlanetWarsFrame frame, BufferedImage image, boolean layersOnly) {
+        Graphics g = image.getGraphics();
+        if (layersOnly) {
+            frame.drawLayers(g);
+        } else {
+            frame.draw(g);
+        }
+        g.dispose();
+    }
+
+    private static boolean samePixels(BufferedImage image1, BufferedImage image2) {
+        int width = image1.getWidth();
+        int height = image1.getHeight();
+        return Arrays.equals(image1.getRGB(0, 0, width, height, null, 0, width), image2.getRGB(0, 0, width, height, null, 0, width));
+    }
+}
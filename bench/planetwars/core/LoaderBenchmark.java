@@ -0,0 +1,60 @@
+package planetwars.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SystemLoader#load} on the maps shipped in {@code graphs/}: one map at a time, and all of them in one go.
+ * Other maps can be picked with {@code -p graph=<name>}. Loads come from the compiled map files; {@link #parse()} reads
+ * the DOT file instead, for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark {
+    @Param({"k4", "graph", "graph_0", "graph_50", "rings"})
+    public String graph;
+
+    private String[] allGraphs;
+
+    @Setup(Level.Trial)
+    public void listGraphs() throws FileNotFoundException {
+        String[] files = Assets.getGraphs();
+        this.allGraphs = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            this.allGraphs[i] = files[i].substring(0, files[i].length() - ".dot".length());
+        }
+        for (String graph : this.allGraphs) {
+            // Compiles any map that isn't yet, so that the first iteration doesn't pay for it
+            SystemLoader.load(graph, null);
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Planet> load() throws FileNotFoundException {
+        return SystemLoader.load(this.graph, null);
+    }
+
+    @Benchmark
+    public Map<Integer, Planet> parse() throws FileNotFoundException {
+        return SystemLoader.parse(this.graph, null);
+    }
+
+    /**
+     * Loads every map in {@code graphs/}; doesn't depend on {@link #graph}, so run it with a single value of it.
+     */
+    @Benchmark
+    public int loadAll() throws FileNotFoundException {
+        int planets = 0;
+        for (String graph : this.allGraphs) {
+            planets += SystemLoader.load(graph, null).size();
+        }
+        return planets;
+    }
+}
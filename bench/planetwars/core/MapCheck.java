@@ -0,0 +1,155 @@
+package planetwars.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks that every way of loading a map gives the same planets and edges.
+ * <p>
+ * Each map in {@code graphs/} is read four ways: by {@link MapParser}, by {@link SystemLoader#load} (which compiles the
+ * map the first time and reads the compiled file after that), by {@link MapFile} straight from the compiled file, and
+ * by a line-by-line reader kept here that builds planets the way the loader did before {@link MapParser}. Then a few
+ * malformed maps have to be rejected with the line they go wrong on. Run from the project root; exits with status 1
+ * if anything differs.
+ */
+final class MapCheck {
+    private static final Pattern NODE = Pattern.compile("\\s*(\\d+)\\s*\\[(.*)\\]\\s*;?\\s*");
+    private static final Pattern EDGE = Pattern.compile("\\s*(\\d+)\\s*--\\s*(\\d+)\\s*\\[(.*)\\]\\s*;?\\s*");
+    private static final Pattern ATTRIBUTE = Pattern.compile("\\s*(\\w+)\\s*=\\s*(\\w+)\\s*");
+
+    // Malformed maps, each with the line the parser has to name
+    private static final String[][] MALFORMED = {
+            {"graph g {\n  1 [ habit = 1, size = 2, x = 1 ]\n}", "t.dot:2:"},
+            {"graph g {\n  1 [ habit = 1, size = 2, x = 1, y = 1 ]\n\n  1 -- 2 [ weight = 3 ]\n}", "t.dot:4:"},
+            {"graph g {\n  1 [ habit = 1, size = 2, x = 1, y = 1, base = 3 ]\n}", "t.dot:2:"},
+            {"graph g {\n  1 [ habit = 1, size = 2, x = 1, y = 1 ]\n  1 [ habit = 1, size = 2, x = 1, y = 1 ]\n}", "t.dot:3:"},
+            {"graph g {\n  1 [ habit = one, size = 2, x = 1, y = 1 ]\n}", "t.dot:2:"},
+            {"graph g {\n  1 [ habit = 1, size = 2, x = 1, y = 1 ]\n  2 [ habit = 1, size = 2, x = 1, y = 1 ]\n  1 -- 2\n}", "t.dot:4:"},
+    };
+
+    public static void main(String[] args) throws IOException {
+        int maps = 0;
+        int mismatches = 0;
+        for (String file : Assets.getGraphs()) {
+            String graph = file.substring(0, file.length() - ".dot".length());
+            String expected = describe(readByLine(Assets.getGraphFile(graph)));
+            String parsed = describe(SystemLoader.parse(graph, null));
+            String loaded = describe(SystemLoader.load(graph, null));
+            String compiled = describe(MapFile.read(Assets.getCompiledGraphFile(graph), null));
+            // Loading again reads the compiled file written by the first load
+            String reloaded = describe(SystemLoader.load(graph, null));
+
+            maps++;
+            if (!expected.equals(parsed) || !expected.equals(loaded) || !expected.equals(compiled) || !expected.equals(reloaded)) {
+                mismatches++;
+                System.out.println(String.format("MISMATCH %s: parsed %b, loaded %b, compiled %b, reloaded %b", graph,
+                        expected.equals(parsed), expected.equals(loaded), expected.equals(compiled), expected.equals(reloaded)));
+            }
+        }
+
+        for (String[] malformed : MALFORMED) {
+            String message;
+            try {
+                MapParser.parse(new StringReader(malformed[0]), "t.dot", null);
+                message = "accepted";
+            } catch (IllegalArgumentException e) {
+                message = e.getMessage();
+            }
+            if (!message.startsWith(malformed[1])) {
+                mismatches++;
+                System.out.println(String.format("MISMATCH malformed map, expected %s: %s", malformed[1], message));
+            }
+        }
+
+        System.out.println(String.format("%d maps, %d malformed maps, %d mismatches", maps, MALFORMED.length, mismatches));
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads a map with one statement per line, as the maps in {@code graphs/} are written, building the planets the
+     * same way the loader did before {@link MapParser}.
+     */
+    private static Map<Integer, Planet> readByLine(File file) throws IOException {
+        Map<Integer, Planet> planets = new HashMap<>();
+        List<int[]> edges = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Matcher edge = EDGE.matcher(line);
+                Matcher node = NODE.matcher(line);
+                if (edge.matches()) {
+                    int weight = Integer.parseInt(attributes(edge.group(3)).get("weight"));
+                    edges.add(new int[]{Integer.parseInt(edge.group(1)), Integer.parseInt(edge.group(2)), weight});
+                } else if (node.matches()) {
+                    Map<String, String> attributes = attributes(node.group(2));
+                    int id = Integer.parseInt(node.group(1));
+                    String base = attributes.get("base");
+                    InternalPlayer owningPlayer = base == null ? InternalPlayer.NEUTRAL
+                            : base.equals("1") ? InternalPlayer.PLAYER1 : InternalPlayer.PLAYER2;
+                    Planet planet = new Planet(id, Integer.parseInt(attributes.get("habit")), Integer.parseInt(attributes.get("size")),
+                            owningPlayer, base != null, null);
+                    if (base != null) {
+                        planet.setPopulation(1);
+                    }
+                    planet.setLocation(new Point2D(Integer.parseInt(attributes.get("x")), Integer.parseInt(attributes.get("y"))));
+                    planets.put(id, planet);
+                }
+            }
+        }
+
+        for (int[] edge : edges) {
+            planets.get(edge[0]).addEdge(planets.get(edge[1]), edge[2]);
+        }
+        return planets;
+    }
+
+    private static Map<String, String> attributes(String list) {
+        Map<String, String> attributes = new HashMap<>();
+        for (String attribute : list.split(",")) {
+            Matcher matcher = ATTRIBUTE.matcher(attribute);
+            if (matcher.matches()) {
+                attributes.put(matcher.group(1), matcher.group(2));
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Describes every planet and its edges in a fixed order, so that maps can be compared as strings.
+     */
+    private static String describe(Map<Integer, Planet> planets) {
+        StringBuilder description = new StringBuilder();
+        for (Planet planet : new TreeMap<>(planets).values()) {
+            description.append(String.format("%d: habit %d, size %d, %s, homeworld %b, population %d, at (%s, %s), edges",
+                    planet.getId(), planet.getHabitability(), planet.getSize(), planet.getOwningPlayer(),
+                    planet.isHomeworld(), planet.getPopulation(), planet.getLocation().getX(), planet.getLocation().getY()));
+
+            List<Edge> edges = new ArrayList<>(planet.getEdges());
+            Collections.sort(edges, new Comparator<Edge>() {
+                @Override
+                public int compare(Edge edge1, Edge edge2) {
+                    return Integer.compare(edge1.getDestinationPlanetId(), edge2.getDestinationPlanetId());
+                }
+            });
+            for (Edge edge : edges) {
+                description.append(String.format(" %d (%d)", edge.getDestinationPlanetId(), edge.getLength()));
+            }
+            description.append('\n');
+        }
+        return description.toString();
+    }
+}
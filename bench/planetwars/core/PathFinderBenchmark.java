@@ -0,0 +1,62 @@
+package planetwars.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PathFinder#findPath} for every edge of a generated map, straight and wavy, with the path cache cleared so
+ * every path is searched for again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PathFinderBenchmark {
+    private static final int FLIGHT_TIME = 3;
+
+    @Param({"16", "64", "256"})
+    public int planets;
+
+    @Param({"true", "false"})
+    public boolean straight;
+
+    private PathFinder pathFinder;
+    private Planet[][] edges;
+
+    @Setup(Level.Trial)
+    public void createFrame() throws IOException {
+        String graph = BenchMaps.write(this.planets, 1);
+        PlanetWars planetWars = new PlanetWars(null, null, graph, 1);
+        planetWars.shutdown();
+
+        // The frame lays the planets out on its bucket grid, which the path finder searches
+        int size = (BenchMaps.side(this.planets) + 1) * PlanetWarsFrame.BUCKET_WIDTH;
+        this.pathFinder = new PathFinder(new PlanetWarsFrame(size, size, "bench", planetWars));
+
+        List<Planet[]> edges = new ArrayList<>();
+        for (Planet planet : planetWars.getPlanets()) {
+            for (Planet neighbor : planet.getNeighboringPlanets()) {
+                if (planet.getId() < neighbor.getId()) {
+                    edges.add(new Planet[]{planet, neighbor});
+                }
+            }
+        }
+        this.edges = edges.toArray(new Planet[0][]);
+    }
+
+    @Benchmark
+    public int findPaths() {
+        this.pathFinder.clearCache();
+        int points = 0;
+        for (Planet[] edge : this.edges) {
+            points += this.pathFinder.findPath(edge[0], edge[1], FLIGHT_TIME * PlanetWarsFrame.FRAMES_PER_TURN, this.straight).size();
+        }
+        return points;
+    }
+}
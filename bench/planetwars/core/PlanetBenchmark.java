@@ -0,0 +1,46 @@
+package planetwars.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Planet#processShuttles()} with many shuttles landing on one planet in the same turn, half of them hostile.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanetBenchmark {
+    @Param({"1", "16", "256", "4096"})
+    public int arrivingShuttles;
+
+    private Planet planet;
+    private Shuttle[] shuttles;
+
+    @Setup(Level.Trial)
+    public void createShuttles() {
+        this.planet = new Planet(0, 5, 1000, InternalPlayer.PLAYER1, false, null);
+        this.shuttles = new Shuttle[this.arrivingShuttles];
+        for (int i = 0; i < this.shuttles.length; i++) {
+            InternalPlayer owner = i % 2 == 0 ? InternalPlayer.PLAYER1 : InternalPlayer.PLAYER2;
+            this.shuttles[i] = new Shuttle(1, 0, owner, 1, 1);
+        }
+    }
+
+    /**
+     * Lands the whole batch. Handing the shuttles over again is part of every call, since landing consumes them.
+     */
+    @Benchmark
+    public long processShuttles() {
+        this.planet.setPopulation(1000);
+        for (Shuttle shuttle : this.shuttles) {
+            this.planet.addIncomingShuttle(shuttle);
+            this.planet.addArrivingShuttle(shuttle);
+        }
+        this.planet.processShuttles();
+        return this.planet.getPopulation();
+    }
+}
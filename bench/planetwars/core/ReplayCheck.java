@@ -0,0 +1,70 @@
+package planetwars.core;
+
+import planetwars.strategies.RandomMoveStrategy;
+import planetwars.strategies.StrategyOne;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Checks that seeded matches can be reproduced: every match is played twice with the same seed and has to end the
+ * same way both times, and its replay, re-simulated by {@link ReplayReader} without the strategies, has to end that
+ * way too.
+ * <p>
+ * Matches are played between the seeded built-in strategies on every map in {@code graphs/}, with turns taken one
+ * after the other and at the same time. Run from the project root; exits with status 1 if anything differs.
+ * <p>
+ * Usage: {@code ReplayCheck [seeds]}, where seeds is the number of seeds to play per map and defaults to 2.
+ */
+final class ReplayCheck {
+    private static final int MAX_TURNS = 3000;
+
+    public static void main(String[] args) throws IOException {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int matches = 0;
+        int mismatches = 0;
+        for (String file : Assets.getGraphs()) {
+            String graph = file.substring(0, file.length() - ".dot".length());
+            for (int simultaneous = 0; simultaneous < 2; simultaneous++) {
+                for (long seed = 1; seed <= seeds; seed++) {
+                    ByteArrayOutputStream recording = new ByteArrayOutputStream();
+                    String first = play(graph, seed, simultaneous == 1, recording);
+                    String second = play(graph, seed, simultaneous == 1, new ByteArrayOutputStream());
+                    ReplayReader.Result replay = new ReplayReader(new ByteArrayInputStream(recording.toByteArray())).replay();
+                    String replayed = String.format("%s in %d turns", replay.getWinner(), replay.getTurns());
+
+                    matches++;
+                    if (!first.equals(second) || !first.equals(replayed) || !replay.matchesRecording()) {
+                        mismatches++;
+                        System.out.println(String.format("MISMATCH %s seed %d%s: played %s, again %s; %s", graph, seed,
+                                simultaneous == 1 ? " (simultaneous)" : "", first, second, replay));
+                    }
+                }
+            }
+        }
+        System.out.println(String.format("%d matches, %d mismatches", matches, mismatches));
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a match, recording it to the given stream.
+     *
+     * @return How the match ended
+     */
+    private static String play(String graph, long seed, boolean simultaneous, ByteArrayOutputStream recording) throws IOException {
+        PlanetWars game = new PlanetWars(new RandomMoveStrategy(), new StrategyOne(), graph, seed);
+        game.setSimultaneousTurns(simultaneous);
+        game.setReplayWriter(new ReplayWriter(recording, graph, seed));
+        try {
+            while (!game.isOver() && game.getTurn() < MAX_TURNS) {
+                game.gameTick();
+            }
+        } finally {
+            game.shutdown();
+        }
+        return String.format("%s in %d turns", game.getWinner(), game.getTurn());
+    }
+}
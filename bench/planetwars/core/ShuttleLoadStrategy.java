@@ -0,0 +1,54 @@
+package planetwars.core;
+
+import planetwars.publicapi.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Keeps a steady stream of shuttles in the air for the benchmarks: every turn each owned planet sends up to the given
+ * number of shuttles, one person each, to its neighbors in turn.
+ */
+final class ShuttleLoadStrategy implements IStrategy {
+    private final int shuttlesPerPlanet;
+    private int rotation;
+
+    ShuttleLoadStrategy(int shuttlesPerPlanet) {
+        this.shuttlesPerPlanet = shuttlesPerPlanet;
+    }
+
+    @Override
+    public void takeTurn(List<IPlanet> planets, IPlanetOperations planetOperations, Queue<IEvent> eventsToExecute) {
+        Map<Integer, IPlanet> planetsById = new HashMap<>();
+        for (IPlanet planet : planets) {
+            planetsById.put(planet.getId(), planet);
+        }
+
+        this.rotation++;
+        for (IPlanet planet : planets) {
+            if (!(planet instanceof IVisiblePlanet) || ((IVisiblePlanet) planet).getOwner() != Owner.SELF) {
+                continue;
+            }
+
+            IVisiblePlanet source = (IVisiblePlanet) planet;
+            IEdge[] edges = source.getEdges().toArray(new IEdge[0]);
+            long shuttles = Math.min(this.shuttlesPerPlanet, source.getPopulation() - 1);
+            for (int i = 0; i < shuttles && edges.length > 0; i++) {
+                IPlanet destination = planetsById.get(edges[(this.rotation + i) % edges.length].getDestinationPlanetId());
+                eventsToExecute.add(planetOperations.transferPeople(source, destination, 1));
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "ShuttleLoad";
+    }
+
+    @Override
+    public boolean compete() {
+        return false;
+    }
+}
@@ -0,0 +1,123 @@
+package planetwars.core;
+
+import planetwars.publicapi.*;
+import planetwars.strategies.RandomMoveStrategy;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Checks that {@link CompactGameState} plays a game out exactly like the {@link Planet} engine.
+ * <p>
+ * A seeded random game is played on every map in {@code graphs/}. Every launch either player asks for is also handed
+ * to a compact copy of the map, which has to accept or reject it on its own, and after every turn each planet's owner
+ * and population are compared. Run from the project root; exits with status 1 if anything differs.
+ * <p>
+ * Usage: {@code StateCheck [seed]}
+ */
+final class StateCheck {
+    private static final int MAX_TURNS = 1500;
+
+    public static void main(String[] args) throws FileNotFoundException {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int games = 0;
+        int mismatches = 0;
+        for (String file : Assets.getGraphs()) {
+            String graph = file.substring(0, file.length() - ".dot".length());
+            int mismatch = play(graph, seed);
+            if (mismatch >= 0) {
+                mismatches++;
+                System.out.println(String.format("MISMATCH %s on turn %d", graph, mismatch));
+            }
+            games++;
+        }
+        System.out.println(String.format("%d games, %d mismatches", games, mismatches));
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return The first turn on which the two differed, or -1 if they never did
+     */
+    private static int play(String graph, long seed) throws FileNotFoundException {
+        List<Shuttle> launches = new ArrayList<>();
+        List<InternalPlayer> launchers = new ArrayList<>();
+        PlanetWars game = new PlanetWars(new RecordingStrategy(new RandomMoveStrategy(), InternalPlayer.PLAYER1, launches, launchers),
+                new RecordingStrategy(new RandomMoveStrategy(), InternalPlayer.PLAYER2, launches, launchers), graph, seed);
+        CompactGameState state = new CompactGameState(game.getPlanets());
+        try {
+            for (int turn = 1; turn <= MAX_TURNS && !game.isOver(); turn++) {
+                launches.clear();
+                launchers.clear();
+                game.gameTick();
+                state.tick();
+                for (int i = 0; i < launches.size(); i++) {
+                    Shuttle shuttle = launches.get(i);
+                    state.launch(shuttle.getSourcePlanetId(), shuttle.getDestinationPlanetId(), launchers.get(i),
+                            shuttle.getNumberPeople(), shuttle.getFlightTime());
+                }
+
+                for (Planet planet : game.getPlanets()) {
+                    if (planet.getPopulation() != state.getPopulation(planet.getId())
+                            || planet.getOwningPlayer() != state.getOwningPlayer(planet.getId())) {
+                        return turn;
+                    }
+                }
+            }
+        } finally {
+            game.shutdown();
+        }
+        return -1;
+    }
+
+    /**
+     * Passes a strategy's events on to the engine, and notes every launch it asks for along with who asked.
+     */
+    private static final class RecordingStrategy implements IStrategy {
+        private final IStrategy strategy;
+        private final InternalPlayer player;
+        private final List<Shuttle> launches;
+        private final List<InternalPlayer> launchers;
+
+        RecordingStrategy(IStrategy strategy, InternalPlayer player, List<Shuttle> launches, List<InternalPlayer> launchers) {
+            this.strategy = strategy;
+            this.player = player;
+            this.launches = launches;
+            this.launchers = launchers;
+        }
+
+        @Override
+        public void takeTurn(List<IPlanet> planets, IPlanetOperations planetOperations, Queue<IEvent> eventsToExecute) {
+            Queue<IEvent> events = new ArrayDeque<>();
+            this.strategy.takeTurn(planets, planetOperations, events);
+            for (IEvent event : events) {
+                // Only what the engine took in is compared; a full queue drops the rest
+                if (eventsToExecute.offer(event) && event instanceof Shuttle) {
+                    synchronized (this.launches) {
+                        this.launches.add((Shuttle) event);
+                        this.launchers.add(this.player);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void setSeed(long seed) {
+            this.strategy.setSeed(seed);
+        }
+
+        @Override
+        public String getName() {
+            return this.strategy.getName();
+        }
+
+        @Override
+        public boolean compete() {
+            return false;
+        }
+    }
+}
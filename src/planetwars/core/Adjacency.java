@@ -0,0 +1,101 @@
+package planetwars.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compressed sparse row adjacency over dense planet indices, built once when a map is loaded.
+ * <p>
+ * The edges leaving planet {@code i} occupy positions {@code getStart(i)} (inclusive) to {@code getEnd(i)} (exclusive)
+ * of the target and length arrays, sorted by target so a connection can be found with a binary search.
+ */
+final class Adjacency {
+    private final PlanetIndex index;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] lengths;
+
+    public Adjacency(PlanetIndex index, int[] offsets, int[] targets, int[] lengths) {
+        this.index = index;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.lengths = lengths;
+    }
+
+    public static Adjacency of(PlanetIndex index, Collection<Planet> planets) {
+        int n = index.size();
+        Planet[] byIndex = new Planet[n];
+        for (Planet planet : planets) {
+            byIndex[index.indexOf(planet.getId())] = planet;
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + byIndex[i].getEdges().size();
+        }
+
+        // Pack target and length together so a plain sort orders each row by target; the length is masked so that a
+        // negative one can't spill into the target's bits
+        int[] targets = new int[offsets[n]];
+        int[] lengths = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            long[] row = new long[byIndex[i].getEdges().size()];
+            int k = 0;
+            for (Edge edge : byIndex[i].getEdges()) {
+                row[k++] = ((long) index.indexOf(edge.getDestinationPlanetId()) << 32) | (edge.getLength() & 0xFFFFFFFFL);
+            }
+            Arrays.sort(row);
+            for (k = 0; k < row.length; k++) {
+                targets[offsets[i] + k] = (int) (row[k] >>> 32);
+                lengths[offsets[i] + k] = (int) row[k];
+            }
+        }
+
+        return new Adjacency(index, offsets, targets, lengths);
+    }
+
+    public PlanetIndex getIndex() {
+        return index;
+    }
+
+    public int getStart(int src) {
+        return offsets[src];
+    }
+
+    public int getEnd(int src) {
+        return offsets[src + 1];
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    public int getLength(int edge) {
+        return lengths[edge];
+    }
+
+    /**
+     * @return The position of the edge between two dense indices, or -1 if they aren't connected
+     */
+    public int findEdge(int src, int dest) {
+        int position = Arrays.binarySearch(this.targets, this.offsets[src], this.offsets[src + 1], dest);
+        return position >= 0 ? position : -1;
+    }
+
+    /**
+     * @return The length of the edge between two planet ids, or -1 if they aren't connected
+     */
+    public int getDistance(int srcId, int destId) {
+        int src = this.index.indexOf(srcId);
+        int dest = this.index.indexOf(destId);
+        if (src < 0 || dest < 0) {
+            return -1;
+        }
+        int position = findEdge(src, dest);
+        return position >= 0 ? this.lengths[position] : -1;
+    }
+}
@@ -5,13 +5,12 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowEvent;
-import java.awt.image.BufferedImage;
 import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class AnimationFrame extends JPanel implements Runnable {
-    private int fps = 50;
+    private volatile int fps = 50;
 
-    private boolean paused;
+    private volatile boolean paused;
 
     public AnimationFrame() {
         this(800, 800, "");
@@ -25,11 +24,6 @@ public abstract class AnimationFrame extends JPanel implements Runnable {
         paused = false;
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        draw(g);
-    }
-
     /**
      * Call this method when you're ready for the animation to start.
      */
@@ -112,7 +106,6 @@ public abstract class AnimationFrame extends JPanel implements Runnable {
     //at http://www.javaworld.com/javaworld/jw-03-1996/jw-03-animation.html
     //-----------------------------------------------------------------------------
 
-    private Image buffer;
     private Thread thread;
     private ReentrantLock lock;
     private boolean cancelled;
@@ -131,12 +124,14 @@ public abstract class AnimationFrame extends JPanel implements Runnable {
                         break;
                     }
                     action();
-                    update(getGraphics());
                     // Delay depending on how far we are behind:
                     tm += 1000 / fps;
                 } finally {
                     lock.unlock();
                 }
+                //the frame itself is drawn on the event thread, in paintComponent; repaints that pile up while it's
+                //busy are merged into one
+                repaint();
             }
             try {
                 Thread.sleep(Math.max(0, tm - System.currentTimeMillis()));
@@ -155,24 +150,19 @@ public abstract class AnimationFrame extends JPanel implements Runnable {
         }
     }
 
-    public void paint(Graphics g) {
-        //paint is called if part of the window is covered/uncovered/etc.
-        //need to overwrite the Frame method to redirect it to update.
-        update(g);
-    }
-
-    public void update(Graphics g) {
-        //( overwriting Frame.update() )
-        //update hands a buffer image to draw(), then draws the buffer to screen.
-        //ensure the buffer is ready and draw to it:
-        if (buffer == null) {
-//			buffer=createImage(getWidth(), getHeight());//createImage is a method of the Frame class.
-            buffer = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+    @Override
+    protected void paintComponent(Graphics g) {
+        //paintComponent is called on the event thread, both for the animation's repaints and when part of the window
+        //is covered/uncovered/etc.
+        //the frame is drawn straight onto g: Swing double buffers the panel itself, in video memory where it can, so
+        //drawing into another buffer first would only copy every frame one more time.
+        //the lock keeps action() from changing the animation while it's drawn.
+        try {
+            lock.lock();
+            draw(g);
+        } finally {
+            lock.unlock();
         }
-        //call draw:
-        draw(buffer.getGraphics());
-        //draw buffer to screen:
-        g.drawImage(buffer, 0, 0, null);
     }
 
 
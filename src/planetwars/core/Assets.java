@@ -1,57 +1,82 @@
 package planetwars.core;
 
-import com.paypal.digraph.parser.GraphParser;
 import planetwars.publicapi.IStrategy;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.*;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 final class Assets {
     private static final String STRATEGIES_DIR = "strategies/";
     private static final String GRAPHS_DIR = "graphs/";
     private static final String IMG_DIR = "img/";
+    private static final String COMPILED_GRAPH_EXTENSION = ".pwmap";
+    private static final StrategyRegistry STRATEGY_REGISTRY = new StrategyRegistry();
     private static final String[] PLANET_IMGS = {IMG_DIR + "alpha.png", IMG_DIR + "beta.png", IMG_DIR +"neutral.png"};
+    private static final BufferedImage[] PLANET_IMAGES = new BufferedImage[InternalPlayer.values().length];
 
-    public static Image loadPlanet(InternalPlayer who) throws IOException {
-        switch (who) {
-            case PLAYER1:
-                return ImageIO.read(new File(PLANET_IMGS[0]));
-            case PLAYER2:
-                return ImageIO.read(new File(PLANET_IMGS[1]));
-            case NEUTRAL:
-                return ImageIO.read(new File(PLANET_IMGS[2]));
-            default:
-                return null;
+    /**
+     * Gets the sprite of a planet owned by the given player. Each sprite is only decoded once.
+     */
+    public static synchronized BufferedImage loadPlanet(InternalPlayer who) throws IOException {
+        BufferedImage image = PLANET_IMAGES[who.ordinal()];
+        if (image == null) {
+            switch (who) {
+                case PLAYER1:
+                    image = ImageIO.read(new File(PLANET_IMGS[0]));
+                    break;
+                case PLAYER2:
+                    image = ImageIO.read(new File(PLANET_IMGS[1]));
+                    break;
+                default:
+                    image = ImageIO.read(new File(PLANET_IMGS[2]));
+                    break;
+            }
+            if (image == null) {
+                throw new IOException(String.format("Can't decode the sprite for %s", who));
+            }
+            PLANET_IMAGES[who.ordinal()] = image;
         }
+        return image;
     }
 
     public static IStrategy loadPlayer(String jar) {
-        final String playerJar = STRATEGIES_DIR + jar + ".jar";
-        final String STRATEGY = "planetwars.strategies.Strategy";
         try {
-            ClassLoader loader = new URLClassLoader(new URL[]{new File(playerJar).toURL()}, Thread.currentThread().getContextClassLoader());
-            Class<?> c = loader.loadClass(STRATEGY);
-
-            return (IStrategy) c.newInstance();
-        } catch (IllegalAccessException | InstantiationException | ClassNotFoundException | MalformedURLException e) {
+            return STRATEGY_REGISTRY.newInstance(getStrategyFile(jar));
+        } catch (IOException | ReflectiveOperationException | ClassCastException e) {
             return null;
         }
     }
 
-    public static GraphParser loadGraph(String graph) throws FileNotFoundException {
-        String filename = GRAPHS_DIR + graph + ".dot";
-        return new GraphParser(new FileInputStream(filename));
+    public static File getStrategyFile(String jar) {
+        return new File(STRATEGIES_DIR + jar + ".jar");
+    }
+
+    public static StrategyRegistry getStrategyRegistry() {
+        return STRATEGY_REGISTRY;
+    }
+
+    public static Reader loadGraph(String graph) throws FileNotFoundException {
+        return new InputStreamReader(new FileInputStream(getGraphFile(graph)), StandardCharsets.UTF_8);
+    }
+
+    public static File getGraphFile(String graph) {
+        return new File(GRAPHS_DIR + graph + ".dot");
+    }
+
+    /**
+     * Gets the file a graph's compiled {@link MapFile} is cached in, next to its DOT file.
+     */
+    public static File getCompiledGraphFile(String graph) {
+        return new File(GRAPHS_DIR + graph + COMPILED_GRAPH_EXTENSION);
     }
 
     public static IStrategy loadPlayer(Class<? extends IStrategy> strategyClass) {
         try {
-            return strategyClass.newInstance();
-        } catch (IllegalAccessException | InstantiationException e) {
+            return StrategyRegistry.newInstance(strategyClass);
+        } catch (ReflectiveOperationException e) {
             return null;
         }
     }
@@ -0,0 +1,325 @@
+package planetwars.core;
+
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Game state stored as parallel primitive arrays indexed by dense planet index (see {@link PlanetIndex}).
+ * <p>
+ * This is an alternative to the {@link Planet} object graph for headless simulation. {@link #tick()} and
+ * {@link #launch} follow the same rules as {@link Planet#grow()}, {@link Planet#processShuttles()},
+ * {@link Planet#shrink()} and {@link Planet#checkAndLaunchShuttle(Shuttle)}, so both representations stay in lockstep
+ * tick for tick.
+ */
+final class CompactGameState {
+    private static final InternalPlayer[] PLAYERS = InternalPlayer.values();
+    private static final byte NO_PLAYER = -1;
+    private static final int INITIAL_SHUTTLE_CAPACITY = 64;
+
+    // Immutable after construction, shared between copies
+    private final PlanetIndex index;
+    private final int[] habitability;
+    private final long[] size;
+    private final boolean[] homeworld;
+    private final Adjacency adjacency;
+
+    // Per-planet state
+    private final long[] population;
+    private final byte[] owner;
+
+    // Shuttles in flight, in launch order
+    private int shuttleCount;
+    private int[] shuttleDestination;
+    private byte[] shuttleOwner;
+    private long[] shuttlePeople;
+    private int[] shuttleTurns;
+
+    // Scratch space for processShuttles, allocated on first use so copies that are never ticked stay cheap
+    private long[] friendlyArrived;
+    private long[] hostileArrived;
+    private byte[] firstHostile;
+    private boolean[] landing;
+    private int[] arrivals;
+
+    /**
+     * Creates a state for the given map with every planet empty and neutral; fill it in with {@link #setPlanet} and
+     * {@link #addShuttle} before ticking or copying it.
+     */
+    public CompactGameState(Adjacency adjacency) {
+        int n = adjacency.getIndex().size();
+        this.index = adjacency.getIndex();
+        this.adjacency = adjacency;
+
+        this.habitability = new int[n];
+        this.size = new long[n];
+        this.homeworld = new boolean[n];
+        this.population = new long[n];
+        this.owner = new byte[n];
+        Arrays.fill(this.owner, (byte) InternalPlayer.NEUTRAL.ordinal());
+
+        this.shuttleDestination = new int[INITIAL_SHUTTLE_CAPACITY];
+        this.shuttleOwner = new byte[INITIAL_SHUTTLE_CAPACITY];
+        this.shuttlePeople = new long[INITIAL_SHUTTLE_CAPACITY];
+        this.shuttleTurns = new int[INITIAL_SHUTTLE_CAPACITY];
+    }
+
+    public CompactGameState(Collection<Planet> planets) {
+        this(Adjacency.of(PlanetIndex.of(planets), planets));
+        for (Planet planet : planets) {
+            this.setPlanet(planet.getId(), planet.getHabitability(), planet.getSize(), planet.isHomeworld(),
+                    planet.getPopulation(), planet.getOwningPlayer());
+        }
+    }
+
+    /**
+     * Copies the mutable state of another instance; the map itself is shared.
+     */
+    public CompactGameState(CompactGameState other) {
+        this.index = other.index;
+        this.habitability = other.habitability;
+        this.size = other.size;
+        this.homeworld = other.homeworld;
+        this.adjacency = other.adjacency;
+
+        this.population = other.population.clone();
+        this.owner = other.owner.clone();
+
+        this.shuttleCount = other.shuttleCount;
+        int capacity = Math.max(INITIAL_SHUTTLE_CAPACITY, other.shuttleCount);
+        this.shuttleDestination = Arrays.copyOf(other.shuttleDestination, capacity);
+        this.shuttleOwner = Arrays.copyOf(other.shuttleOwner, capacity);
+        this.shuttlePeople = Arrays.copyOf(other.shuttlePeople, capacity);
+        this.shuttleTurns = Arrays.copyOf(other.shuttleTurns, capacity);
+    }
+
+    /**
+     * Sets up a planet while the state is being built. The map attributes are shared with copies, so this must not be
+     * called once the state has been copied.
+     */
+    public void setPlanet(int id, int habitability, long size, boolean homeworld, long population, InternalPlayer owner) {
+        int i = this.index.indexOf(id);
+        this.habitability[i] = habitability;
+        this.size[i] = size;
+        this.homeworld[i] = homeworld;
+        this.population[i] = population;
+        this.owner[i] = (byte) owner.ordinal();
+    }
+
+    /**
+     * Puts a shuttle in flight without any validation, e.g. one that was launched before this state was built.
+     */
+    public void addShuttle(int destId, InternalPlayer player, long numPeople, int turnsToArrival) {
+        if (this.shuttleCount == this.shuttleTurns.length) {
+            int capacity = this.shuttleCount * 2;
+            this.shuttleDestination = Arrays.copyOf(this.shuttleDestination, capacity);
+            this.shuttleOwner = Arrays.copyOf(this.shuttleOwner, capacity);
+            this.shuttlePeople = Arrays.copyOf(this.shuttlePeople, capacity);
+            this.shuttleTurns = Arrays.copyOf(this.shuttleTurns, capacity);
+        }
+        this.shuttleDestination[this.shuttleCount] = this.index.indexOf(destId);
+        this.shuttleOwner[this.shuttleCount] = (byte) player.ordinal();
+        this.shuttlePeople[this.shuttleCount] = numPeople;
+        this.shuttleTurns[this.shuttleCount] = turnsToArrival;
+        this.shuttleCount++;
+    }
+
+    public static CompactGameState load(String graph) throws FileNotFoundException {
+        return new CompactGameState(SystemLoader.load(graph, null).values());
+    }
+
+    /**
+     * Advances every planet by one turn: grow, land arriving shuttles, then shrink.
+     */
+    public void tick() {
+        int n = this.population.length;
+        for (int i = 0; i < n; i++) {
+            grow(i);
+        }
+        processShuttles();
+        for (int i = 0; i < n; i++) {
+            shrink(i);
+        }
+    }
+
+    private void grow(int i) {
+        if (this.population[i] > this.size[i]) {
+            return;
+        }
+
+        double populationScaleFactor = 1. + (this.habitability[i] / 100.);
+        this.population[i] = (long) Math.min(this.size[i], Math.ceil(this.population[i] * populationScaleFactor));
+    }
+
+    private void processShuttles() {
+        if (this.arrivals == null) {
+            int n = this.population.length;
+            this.friendlyArrived = new long[n];
+            this.hostileArrived = new long[n];
+            this.firstHostile = new byte[n];
+            Arrays.fill(this.firstHostile, NO_PLAYER);
+            this.landing = new boolean[n];
+            this.arrivals = new int[n];
+        }
+
+        // Move every shuttle closer, tally the ones that arrive and compact the rest in launch order
+        int arrivalCount = 0;
+        int kept = 0;
+        for (int s = 0; s < this.shuttleCount; s++) {
+            if (this.shuttleTurns[s] > 0) {
+                this.shuttleTurns[s]--;
+            }
+
+            if (this.shuttleTurns[s] != 0) {
+                if (kept != s) {
+                    this.shuttleDestination[kept] = this.shuttleDestination[s];
+                    this.shuttleOwner[kept] = this.shuttleOwner[s];
+                    this.shuttlePeople[kept] = this.shuttlePeople[s];
+                    this.shuttleTurns[kept] = this.shuttleTurns[s];
+                }
+                kept++;
+                continue;
+            }
+
+            int dest = this.shuttleDestination[s];
+            if (!this.landing[dest]) {
+                this.landing[dest] = true;
+                this.arrivals[arrivalCount++] = dest;
+            }
+            if (this.shuttleOwner[s] == this.owner[dest]) {
+                this.friendlyArrived[dest] += this.shuttlePeople[s];
+            } else {
+                if (this.firstHostile[dest] == NO_PLAYER) {
+                    this.firstHostile[dest] = this.shuttleOwner[s];
+                }
+                this.hostileArrived[dest] += this.shuttlePeople[s];
+            }
+        }
+        this.shuttleCount = kept;
+
+        for (int a = 0; a < arrivalCount; a++) {
+            int i = this.arrivals[a];
+            this.population[i] += this.friendlyArrived[i];
+
+            if (this.firstHostile[i] != NO_PLAYER) {
+                long attackingPopulation = this.hostileArrived[i];
+                long effectivePopulation = (long) (1.1 * this.population[i]);
+                if (effectivePopulation < attackingPopulation) {
+                    this.owner[i] = this.firstHostile[i];
+                    this.population[i] = attackingPopulation - effectivePopulation;
+                } else if (effectivePopulation == attackingPopulation) {
+                    this.owner[i] = (byte) InternalPlayer.NEUTRAL.ordinal();
+                    this.population[i] = 0;
+                } else {
+                    this.population[i] = Math.min(this.population[i], effectivePopulation - attackingPopulation);
+                }
+            }
+
+            this.friendlyArrived[i] = 0;
+            this.hostileArrived[i] = 0;
+            this.firstHostile[i] = NO_PLAYER;
+            this.landing[i] = false;
+        }
+    }
+
+    private void shrink(int i) {
+        if (this.population[i] <= this.size[i]) {
+            return;
+        }
+
+        long difference = this.population[i] - this.size[i];
+        long killedOff = (long) Math.ceil(difference * 0.1);
+        this.population[i] -= killedOff;
+    }
+
+    /**
+     * Validates a transfer the same way {@link Planet#checkAndLaunchShuttle(Shuttle)} does and, if it is legal, puts
+     * the shuttle in flight.
+     *
+     * @return True if the shuttle has successfully left the source planet
+     */
+    public boolean launch(int srcId, int destId, InternalPlayer player, long numPeople, int turnsToArrival) {
+        int src = this.index.indexOf(srcId);
+        int dest = this.index.indexOf(destId);
+        if (src < 0 || dest < 0 || src == dest) {
+            return false;
+        }
+
+        byte playerToken = (byte) player.ordinal();
+        if (playerToken != this.owner[src]) {
+            return false;
+        }
+        if (numPeople > this.population[src] || numPeople <= 0) {
+            return false;
+        }
+        if (this.adjacency.findEdge(src, dest) < 0) {
+            return false;
+        }
+
+        this.population[src] -= numPeople;
+        if (this.population[src] == 0) {
+            this.owner[src] = (byte) InternalPlayer.NEUTRAL.ordinal();
+        }
+
+        this.addShuttle(destId, player, numPeople, turnsToArrival);
+        return true;
+    }
+
+    /**
+     * @return The length of the edge between two planets, or -1 if they aren't connected
+     */
+    public int getDistance(int srcId, int destId) {
+        return this.adjacency.getDistance(srcId, destId);
+    }
+
+    public boolean hasWon(InternalPlayer player) {
+        byte opponent = (byte) (player == InternalPlayer.PLAYER1 ? InternalPlayer.PLAYER2 : InternalPlayer.PLAYER1).ordinal();
+        for (byte planetOwner : this.owner) {
+            if (planetOwner == opponent) {
+                return false;
+            }
+        }
+        for (int s = 0; s < this.shuttleCount; s++) {
+            if (this.shuttleOwner[s] == opponent) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public PlanetIndex getIndex() {
+        return index;
+    }
+
+    public Adjacency getAdjacency() {
+        return adjacency;
+    }
+
+    public int getPlanetCount() {
+        return population.length;
+    }
+
+    public int getShuttleCount() {
+        return shuttleCount;
+    }
+
+    public long getPopulation(int id) {
+        return this.population[this.index.indexOf(id)];
+    }
+
+    public InternalPlayer getOwningPlayer(int id) {
+        return PLAYERS[this.owner[this.index.indexOf(id)]];
+    }
+
+    public int getHabitability(int id) {
+        return this.habitability[this.index.indexOf(id)];
+    }
+
+    public long getSize(int id) {
+        return this.size[this.index.indexOf(id)];
+    }
+
+    public boolean isHomeworld(int id) {
+        return this.homeworld[this.index.indexOf(id)];
+    }
+}
@@ -0,0 +1,249 @@
+package planetwars.core;
+
+import planetwars.publicapi.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps one {@link IDeltaStrategy} player's view of the game up to date and works out what changed between their turns.
+ * <p>
+ * The engine reports every planet it touches through {@link #planetChanged}: owner and population changes, shuttles
+ * headed for it, and the player starting or stopping to see it. Each turn only those planets are looked at again, so
+ * the work per turn follows the number of changes rather than the size of the map. Visible planets with shuttles
+ * incoming are looked at every turn too, since their arrival times count down. Launches and landings are reported to
+ * the tracker as they happen.
+ */
+final class DeltaTracker {
+    private final InternalPlayer viewer;
+    private final PlanetIndex index;
+    private final Planet[] planets;
+    private final PlanetVisibility visibility;
+    private final GameView view;
+    private boolean started;
+
+    // Planets touched since the last update, each listed once
+    private final BitSet dirty;
+    private int[] dirtyPlanets = new int[16];
+    private int dirtyCount;
+    private int[] sparePlanets = new int[16];
+
+    private List<Shuttle> launched = new ArrayList<>();
+    private List<IShuttle> landed = new ArrayList<>();
+
+    public DeltaTracker(InternalPlayer viewer, PlanetIndex index, Planet[] planets, PlanetVisibility visibility) {
+        this.viewer = viewer;
+        this.index = index;
+        this.planets = planets;
+        this.visibility = visibility;
+        this.view = new GameView(new IPlanet[planets.length], index);
+        this.dirty = new BitSet(planets.length);
+    }
+
+    /**
+     * Marks a planet to be looked at again on the player's next turn.
+     *
+     * @param planet The planet's dense index
+     */
+    public void planetChanged(int planet) {
+        if (this.dirty.get(planet)) {
+            return;
+        }
+        this.dirty.set(planet);
+        if (this.dirtyCount == this.dirtyPlanets.length) {
+            this.dirtyPlanets = Arrays.copyOf(this.dirtyPlanets, this.dirtyCount * 2);
+        }
+        this.dirtyPlanets[this.dirtyCount++] = planet;
+    }
+
+    public void shuttleLaunched(Shuttle shuttle) {
+        if (this.started) {
+            this.launched.add(shuttle);
+        }
+    }
+
+    /**
+     * Called as the shuttle lands, so that it is reported if the player could see its destination then, as it was then.
+     */
+    public void shuttleLanded(Shuttle shuttle) {
+        if (this.started && this.isVisible(this.visibility.getVisible(this.viewer), shuttle.getDestinationPlanetId())) {
+            this.landed.add(shuttle.getShuttleSnapshot(this.viewer, shuttle.getArrivalTurn()));
+        }
+    }
+
+    /**
+     * Brings the view up to date and returns the changes since the previous call. The view is then available from
+     * {@link #getView()}.
+     */
+    public ITurnDelta update(int turn) {
+        BitSet visible = this.visibility.getVisible(this.viewer);
+        TurnDelta delta = new TurnDelta(!this.started);
+        this.view.turn = turn;
+
+        int[] touched = this.dirtyPlanets;
+        int count = this.dirtyCount;
+        this.dirtyPlanets = this.sparePlanets;
+        this.sparePlanets = touched;
+        this.dirtyCount = 0;
+
+        if (!this.started) {
+            // Everything is new on the first turn
+            for (int i = 0; i < this.planets.length; i++) {
+                this.dirty.clear(i);
+                IPlanet planet = this.getSnapshot(visible, i);
+                this.view.planets[i] = planet;
+                if (planet instanceof IVisiblePlanet) {
+                    delta.revealed.add((IVisiblePlanet) planet);
+                }
+                this.refreshIfIncoming(visible, i);
+            }
+            this.started = true;
+            return delta;
+        }
+
+        for (int k = 0; k < count; k++) {
+            int i = touched[k];
+            this.dirty.clear(i);
+            IPlanet now = this.getSnapshot(visible, i);
+            IPlanet before = this.view.planets[i];
+            this.view.planets[i] = now;
+
+            boolean visibleNow = now instanceof IVisiblePlanet;
+            boolean visibleBefore = before instanceof IVisiblePlanet;
+            if (visibleNow && !visibleBefore) {
+                delta.revealed.add((IVisiblePlanet) now);
+            } else if (!visibleNow && visibleBefore) {
+                delta.hidden.add(now);
+            } else if (visibleNow) {
+                IVisiblePlanet visibleNowPlanet = (IVisiblePlanet) now;
+                IVisiblePlanet visibleBeforePlanet = (IVisiblePlanet) before;
+                if (visibleNowPlanet.getOwner() != visibleBeforePlanet.getOwner()) {
+                    delta.ownerChanges.add(visibleNowPlanet);
+                }
+                if (visibleNowPlanet.getPopulation() != visibleBeforePlanet.getPopulation()) {
+                    delta.populationChanges.add(visibleNowPlanet);
+                }
+            }
+        }
+        for (int k = 0; k < count; k++) {
+            this.refreshIfIncoming(visible, touched[k]);
+        }
+
+        for (Shuttle shuttle : this.launched) {
+            if (shuttle.getArrivalTurn() > turn && this.isVisible(visible, shuttle.getDestinationPlanetId())) {
+                delta.launched.add(shuttle.getShuttleSnapshot(this.viewer, turn));
+            }
+        }
+        delta.landed.addAll(this.landed);
+
+        this.launched = new ArrayList<>();
+        this.landed = new ArrayList<>();
+        return delta;
+    }
+
+    private IPlanet getSnapshot(BitSet visible, int i) {
+        return visible.get(i) ? this.planets[i].getVisiblePlanetSnapshot(this.viewer, this.view.turn)
+                : this.planets[i].getPlanetSnapshot(this.viewer);
+    }
+
+    /**
+     * Keeps a visible planet with shuttles incoming marked, since its snapshot changes every turn.
+     */
+    private void refreshIfIncoming(BitSet visible, int i) {
+        if (visible.get(i) && this.planets[i].hasIncomingShuttles()) {
+            this.planetChanged(i);
+        }
+    }
+
+    private boolean isVisible(BitSet visible, int id) {
+        return visible.get(this.index.indexOf(id));
+    }
+
+    /**
+     * @return The player's view, as of the last call to {@link #update}
+     */
+    public IGameView getView() {
+        return view;
+    }
+
+    private static final class GameView implements IGameView {
+        private int turn;
+        private final IPlanet[] planets;
+        private final List<IPlanet> planetList;
+        private final PlanetIndex index;
+
+        GameView(IPlanet[] planets, PlanetIndex index) {
+            this.planets = planets;
+            this.planetList = Collections.unmodifiableList(Arrays.asList(planets));
+            this.index = index;
+        }
+
+        @Override
+        public int getTurn() {
+            return turn;
+        }
+
+        @Override
+        public List<IPlanet> getPlanets() {
+            return planetList;
+        }
+
+        @Override
+        public IPlanet getPlanet(int id) {
+            int i = this.index.indexOf(id);
+            return i < 0 ? null : this.planets[i];
+        }
+    }
+
+    private static final class TurnDelta implements ITurnDelta {
+        private final boolean firstTurn;
+        private final List<IVisiblePlanet> ownerChanges = new ArrayList<>();
+        private final List<IVisiblePlanet> populationChanges = new ArrayList<>();
+        private final List<IVisiblePlanet> revealed = new ArrayList<>();
+        private final List<IPlanet> hidden = new ArrayList<>();
+        private final List<IShuttle> launched = new ArrayList<>();
+        private final List<IShuttle> landed = new ArrayList<>();
+
+        TurnDelta(boolean firstTurn) {
+            this.firstTurn = firstTurn;
+        }
+
+        @Override
+        public boolean isFirstTurn() {
+            return firstTurn;
+        }
+
+        @Override
+        public List<IVisiblePlanet> getOwnerChanges() {
+            return Collections.unmodifiableList(ownerChanges);
+        }
+
+        @Override
+        public List<IVisiblePlanet> getPopulationChanges() {
+            return Collections.unmodifiableList(populationChanges);
+        }
+
+        @Override
+        public List<IVisiblePlanet> getRevealed() {
+            return Collections.unmodifiableList(revealed);
+        }
+
+        @Override
+        public List<IPlanet> getHidden() {
+            return Collections.unmodifiableList(hidden);
+        }
+
+        @Override
+        public List<IShuttle> getLaunched() {
+            return Collections.unmodifiableList(launched);
+        }
+
+        @Override
+        public List<IShuttle> getLanded() {
+            return Collections.unmodifiableList(landed);
+        }
+    }
+}
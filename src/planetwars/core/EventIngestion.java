@@ -0,0 +1,213 @@
+package planetwars.core;
+
+import planetwars.publicapi.IEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validates a player's events for one turn in a single pass, before any of them touch the game.
+ * <p>
+ * Single shuttles and {@link ShuttleBatch}es are handled alike: every transfer in a batch is checked in turn, as if it
+ * had been queued on its own.
+ * <p>
+ * Events are checked in queue order against the dense adjacency, so a bad id or a missing edge costs a couple of array
+ * reads. Departures are tallied per source planet as they are accepted, which gives the same answer as launching them
+ * one by one: a launch is refused once earlier ones have left its planet with too few people, or with none, at which
+ * point the planet is neutral. The tallies are then applied with one update per source planet.
+ */
+final class EventIngestion {
+    /**
+     * Why an event was refused.
+     */
+    enum Rejection {
+        /**
+         * The turn's queue was full, or its transfers, counting every transfer in a batch, went over the limit.
+         */
+        QUEUE_FULL,
+        UNKNOWN_EVENT,
+        ALREADY_LAUNCHED,
+        WRONG_PLAYER,
+        UNKNOWN_PLANET,
+        NO_PEOPLE,
+        NO_EDGE,
+        NOT_OWNER,
+        NOT_ENOUGH_PEOPLE,
+    }
+
+    private final Adjacency adjacency;
+    private final Planet[] planetsByIndex;
+
+    // People left on each source planet after the launches accepted so far; only valid where stamp == batch
+    private final long[] remaining;
+    private final int[] stamp;
+    private int batch;
+
+    private final List<Shuttle> accepted = new ArrayList<>();
+    private int[] sources = new int[16];
+    private long[] departing = new long[16];
+    private int sourceCount;
+    private int transfersLeft;
+
+    public EventIngestion(Adjacency adjacency, Planet[] planetsByIndex) {
+        this.adjacency = adjacency;
+        this.planetsByIndex = planetsByIndex;
+        this.remaining = new long[planetsByIndex.length];
+        this.stamp = new int[planetsByIndex.length];
+    }
+
+    /**
+     * Validates the events in order and launches the accepted shuttles for the given turn. Afterwards
+     * {@link #getSource(int)} and {@link #getDeparting(int)} give the people leaving each source planet, and
+     * {@link #getAccepted()} the launched shuttles in queue order, until the next call.
+     *
+     * @param transferLimit The most transfers considered this turn, counting every transfer in a batch
+     * @param stats         Where rejections are counted
+     */
+    public void ingest(InternalPlayer player, List<IEvent> events, int turn, int transferLimit, TurnStats stats) {
+        this.batch++;
+        this.accepted.clear();
+        this.sourceCount = 0;
+        this.transfersLeft = transferLimit;
+        PlanetIndex index = this.adjacency.getIndex();
+
+        for (IEvent event : events) {
+            if (event instanceof Shuttle) {
+                Shuttle shuttle = (Shuttle) event;
+                // Each shuttle can only be sent once, even if it is queued again
+                if (shuttle.isLaunched()) {
+                    stats.recordRejection(Rejection.ALREADY_LAUNCHED);
+                } else if (shuttle.getOwningPlayer() != player) {
+                    stats.recordRejection(Rejection.WRONG_PLAYER);
+                } else {
+                    int src = index.indexOf(shuttle.getSourcePlanetId());
+                    int dest = index.indexOf(shuttle.getDestinationPlanetId());
+                    int edge = src >= 0 && dest >= 0 && src != dest ? this.adjacency.findEdge(src, dest) : -1;
+                    if (this.admit(player, src, dest, edge, shuttle.getNumberPeople(), stats)) {
+                        shuttle.launch(turn);
+                        this.accepted.add(shuttle);
+                    }
+                }
+            } else if (event instanceof ShuttleBatch) {
+                this.ingestBatch(player, (ShuttleBatch) event, turn, stats);
+            } else {
+                stats.recordRejection(Rejection.UNKNOWN_EVENT);
+            }
+        }
+
+        for (int i = 0; i < this.sourceCount; i++) {
+            int src = this.sources[i];
+            this.departing[i] = this.planetsByIndex[src].getPopulation() - this.remaining[src];
+        }
+    }
+
+    private void ingestBatch(InternalPlayer player, ShuttleBatch shuttleBatch, int turn, TurnStats stats) {
+        if (shuttleBatch.isLaunched()) {
+            stats.recordRejections(Rejection.ALREADY_LAUNCHED, shuttleBatch.size());
+            return;
+        }
+        if (shuttleBatch.getOwningPlayer() != player) {
+            stats.recordRejections(Rejection.WRONG_PLAYER, shuttleBatch.size());
+            return;
+        }
+
+        shuttleBatch.launch();
+        PlanetIndex index = this.adjacency.getIndex();
+        for (int i = 0; i < shuttleBatch.size(); i++) {
+            int src = shuttleBatch.getSource(i);
+            int dest = shuttleBatch.getDestination(i);
+            int edge = shuttleBatch.getEdge(i);
+            long numPeople = shuttleBatch.getNumberPeople(i);
+            if (this.admit(player, src, dest, edge, numPeople, stats)) {
+                Shuttle shuttle = new Shuttle(index.getId(src), index.getId(dest), player, numPeople, this.adjacency.getLength(edge));
+                shuttle.launch(turn);
+                this.accepted.add(shuttle);
+            }
+        }
+    }
+
+    /**
+     * Checks one transfer and, if it is accepted, takes its people off the source planet's tally.
+     *
+     * @param edge The edge from src to dest, or -1 if there is none
+     */
+    private boolean admit(InternalPlayer player, int src, int dest, int edge, long numPeople, TurnStats stats) {
+        if (this.transfersLeft <= 0) {
+            stats.recordRejection(Rejection.QUEUE_FULL);
+            return false;
+        }
+        this.transfersLeft--;
+
+        if (src < 0 || dest < 0) {
+            stats.recordRejection(Rejection.UNKNOWN_PLANET);
+            return false;
+        }
+        if (numPeople <= 0) {
+            stats.recordRejection(Rejection.NO_PEOPLE);
+            return false;
+        }
+        if (edge < 0) {
+            stats.recordRejection(Rejection.NO_EDGE);
+            return false;
+        }
+
+        if (this.stamp[src] != this.batch) {
+            if (this.planetsByIndex[src].getOwningPlayer() != player) {
+                stats.recordRejection(Rejection.NOT_OWNER);
+                return false;
+            }
+            this.stamp[src] = this.batch;
+            this.remaining[src] = this.planetsByIndex[src].getPopulation();
+            this.addSource(src);
+        } else if (this.remaining[src] == 0) {
+            // Earlier launches emptied the planet, so it has gone neutral
+            stats.recordRejection(Rejection.NOT_OWNER);
+            return false;
+        }
+        if (numPeople > this.remaining[src]) {
+            stats.recordRejection(Rejection.NOT_ENOUGH_PEOPLE);
+            return false;
+        }
+
+        this.remaining[src] -= numPeople;
+        return true;
+    }
+
+    private void addSource(int src) {
+        if (this.sourceCount == this.sources.length) {
+            this.sources = Arrays.copyOf(this.sources, this.sourceCount * 2);
+            this.departing = Arrays.copyOf(this.departing, this.sourceCount * 2);
+        }
+        this.sources[this.sourceCount++] = src;
+    }
+
+    /**
+     * @return The number of planets the player tried to launch from with a valid move
+     */
+    public int getSourceCount() {
+        return sourceCount;
+    }
+
+    public Planet getSource(int i) {
+        return this.planetsByIndex[this.sources[i]];
+    }
+
+    /**
+     * @return The dense index of {@link #getSource(int)}
+     */
+    public int getSourceIndex(int i) {
+        return this.sources[i];
+    }
+
+    /**
+     * @return The number of people leaving {@link #getSource(int)}; zero if none of its launches were accepted
+     */
+    public long getDeparting(int i) {
+        return this.departing[i];
+    }
+
+    public List<Shuttle> getAccepted() {
+        return accepted;
+    }
+}
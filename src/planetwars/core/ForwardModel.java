@@ -0,0 +1,135 @@
+package planetwars.core;
+
+import planetwars.publicapi.*;
+
+import java.util.List;
+
+/**
+ * {@link IForwardModel} backed by a {@link CompactGameState}, so a fork is a handful of array copies.
+ */
+final class ForwardModel implements IForwardModel {
+    private final CompactGameState state;
+    private final InternalPlayer self;
+    private final boolean opponentVisible;
+    private int turnsAdvanced;
+    private InternalPlayer winner;
+
+    private ForwardModel(CompactGameState state, InternalPlayer self, boolean opponentVisible, int turnsAdvanced, InternalPlayer winner) {
+        this.state = state;
+        this.self = self;
+        this.opponentVisible = opponentVisible;
+        this.turnsAdvanced = turnsAdvanced;
+        this.winner = winner;
+    }
+
+    /**
+     * Builds a model from what a player was shown; planets that aren't visible stay empty and neutral.
+     */
+    public static ForwardModel fromSnapshot(Adjacency adjacency, InternalPlayer viewer, List<IPlanet> planets) {
+        CompactGameState state = new CompactGameState(adjacency);
+        PlanetIndex index = adjacency.getIndex();
+        boolean opponentVisible = false;
+
+        for (IPlanet planet : planets) {
+            if (!(planet instanceof IVisiblePlanet) || index.indexOf(planet.getId()) < 0) {
+                continue;
+            }
+
+            IVisiblePlanet visiblePlanet = (IVisiblePlanet) planet;
+            opponentVisible |= visiblePlanet.getOwner() == Owner.OPPONENT;
+            state.setPlanet(visiblePlanet.getId(), visiblePlanet.getHabitability(), visiblePlanet.getSize(),
+                    visiblePlanet.isHomeworld(), visiblePlanet.getPopulation(), toInternal(viewer, visiblePlanet.getOwner()));
+            for (IShuttle shuttle : visiblePlanet.getIncomingShuttles()) {
+                opponentVisible |= shuttle.getOwner() == Owner.OPPONENT;
+                state.addShuttle(visiblePlanet.getId(), toInternal(viewer, shuttle.getOwner()),
+                        shuttle.getNumberPeople(), shuttle.getTurnsToArrival());
+            }
+        }
+
+        return new ForwardModel(state, viewer, opponentVisible, 0, InternalPlayer.NEUTRAL);
+    }
+
+    private static InternalPlayer toInternal(InternalPlayer viewer, Owner owner) {
+        switch (owner) {
+            case SELF:
+                return viewer;
+            case OPPONENT:
+                return viewer == InternalPlayer.PLAYER1 ? InternalPlayer.PLAYER2 : InternalPlayer.PLAYER1;
+            default:
+                return InternalPlayer.NEUTRAL;
+        }
+    }
+
+    private Owner toOwner(InternalPlayer player) {
+        if (player == InternalPlayer.NEUTRAL) {
+            return Owner.NEUTRAL;
+        }
+        return player == this.self ? Owner.SELF : Owner.OPPONENT;
+    }
+
+    @Override
+    public IForwardModel fork() {
+        return new ForwardModel(new CompactGameState(this.state), this.self, this.opponentVisible, this.turnsAdvanced, this.winner);
+    }
+
+    @Override
+    public boolean transferPeople(int sourcePlanetId, int destinationPlanetId, long numPeople) {
+        return transferPeople(Owner.SELF, sourcePlanetId, destinationPlanetId, numPeople);
+    }
+
+    @Override
+    public boolean transferPeople(Owner player, int sourcePlanetId, int destinationPlanetId, long numPeople) {
+        if (player == Owner.NEUTRAL || this.isOver()) {
+            return false;
+        }
+        int distance = this.state.getDistance(sourcePlanetId, destinationPlanetId);
+        return this.state.launch(sourcePlanetId, destinationPlanetId, toInternal(this.self, player), numPeople, distance);
+    }
+
+    @Override
+    public void advance(int turns) {
+        for (int i = 0; i < turns && !this.isOver(); i++) {
+            this.state.tick();
+            this.turnsAdvanced++;
+
+            // Same order as PlanetWars.gameTick
+            if (this.canWin(InternalPlayer.PLAYER1) && this.state.hasWon(InternalPlayer.PLAYER1)) {
+                this.winner = InternalPlayer.PLAYER1;
+            } else if (this.canWin(InternalPlayer.PLAYER2) && this.state.hasWon(InternalPlayer.PLAYER2)) {
+                this.winner = InternalPlayer.PLAYER2;
+            }
+        }
+    }
+
+    /**
+     * An opponent that was never visible may well still have planets, so their absence can't count as a win.
+     */
+    private boolean canWin(InternalPlayer player) {
+        return player != this.self || this.opponentVisible;
+    }
+
+    @Override
+    public int getTurnsAdvanced() {
+        return turnsAdvanced;
+    }
+
+    @Override
+    public long getPopulation(int planetId) {
+        return this.state.getPopulation(planetId);
+    }
+
+    @Override
+    public Owner getOwner(int planetId) {
+        return toOwner(this.state.getOwningPlayer(planetId));
+    }
+
+    @Override
+    public boolean isOver() {
+        return winner != InternalPlayer.NEUTRAL;
+    }
+
+    @Override
+    public Owner getWinner() {
+        return toOwner(winner);
+    }
+}
@@ -38,6 +38,13 @@ public final class GameWindow extends JFrame {
     private Class<? extends IStrategy> strategy2Class;
 
     private PlanetWarsFrame gameFrame;
+    private boolean running;
+    // Warm-ups still running; the game can't be started until they're done, and a running game is paused meanwhile
+    private int pendingWarmUps;
+    private boolean resumeAfterWarmUp;
+    // Strategies picked during a game, waiting for their warm-up before they take over
+    private IStrategy pendingPlayer1;
+    private IStrategy pendingPlayer2;
 
     public static final int GAME_WINDOW_WIDTH = 1200;
     public static final int GAME_WINDOW_HEIGHT = 1000;
@@ -45,6 +52,8 @@ public final class GameWindow extends JFrame {
     public static final int PLANET_WARS_WIDTH = 1000;
     public static final int PLANET_WARS_HEIGHT = 1000;
 
+    private static final int WARM_UP_TURNS = 100;
+
     public GameWindow() throws FileNotFoundException {
         setSize(GAME_WINDOW_WIDTH, GAME_WINDOW_HEIGHT);
         add(main);
@@ -85,6 +94,12 @@ public final class GameWindow extends JFrame {
         }
 
         String graph = String.valueOf(graphSelector.getSelectedItem());
+        running = false;
+        resumeAfterWarmUp = false;
+        pendingPlayer1 = null;
+        pendingPlayer2 = null;
+        warmUp(player1, null);
+        warmUp(player2, null);
         PlanetWars wars = new PlanetWars(player1, player2, graph);
 
         // If there is an existing gameFrame, we are restarting and need to cancel the old one.
@@ -100,11 +115,72 @@ public final class GameWindow extends JFrame {
     }
 
 
+    /**
+     * Gets a strategy's first turns up to speed before it plays; each class is only warmed up once. Warm-up turns can
+     * take as long as real ones, so they are played in the background, with the start button disabled until they are
+     * done. A running game is paused meanwhile, so that its timed turns don't share the processor with the warm-up,
+     * and carries on once every warm-up is done.
+     *
+     * @param whenWarm Run on the event thread once the strategy is warm, or null
+     */
+    private void warmUp(final IStrategy player, final Runnable whenWarm) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            // The window is built on the main thread; the bookkeeping below belongs on the event thread
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    warmUp(player, whenWarm);
+                }
+            });
+            return;
+        }
+        if (player == null || Assets.getStrategyRegistry().isWarm(player.getClass())) {
+            if (whenWarm != null) {
+                whenWarm.run();
+            }
+            return;
+        }
+
+        final Class<? extends IStrategy> strategyClass = player.getClass();
+        final String graph = String.valueOf(graphSelector.getSelectedItem());
+        pendingWarmUps++;
+        startGameButton.setEnabled(false);
+        if (running) {
+            gameFrame.pause();
+            running = false;
+            resumeAfterWarmUp = true;
+        }
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                Assets.getStrategyRegistry().warmUp(strategyClass, graph, WARM_UP_TURNS);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                pendingWarmUps--;
+                if (whenWarm != null) {
+                    whenWarm.run();
+                }
+                if (pendingWarmUps == 0) {
+                    startGameButton.setEnabled(true);
+                    if (resumeAfterWarmUp) {
+                        resumeAfterWarmUp = false;
+                        gameFrame.start();
+                        running = true;
+                    }
+                }
+            }
+        }.execute();
+    }
+
     private void initButtons() {
         startGameButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 gameFrame.start();
+                running = true;
                 graphSelector.setEnabled(false);
             }
         });
@@ -113,6 +189,8 @@ public final class GameWindow extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 gameFrame.pause();
+                running = false;
+                resumeAfterWarmUp = false;
                 graphSelector.setEnabled(true);
             }
         });
@@ -173,16 +251,35 @@ public final class GameWindow extends JFrame {
         player1Selector.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                IStrategy player1 = Assets.loadPlayer(String.valueOf(player1Selector.getSelectedItem()));
-                gameFrame.setPlayer1(player1);
+                final IStrategy player1 = Assets.loadPlayer(String.valueOf(player1Selector.getSelectedItem()));
+                // The game keeps the current player until the new one is warm, unless another is picked meanwhile
+                pendingPlayer1 = player1;
+                warmUp(player1, new Runnable() {
+                    @Override
+                    public void run() {
+                        if (pendingPlayer1 == player1) {
+                            pendingPlayer1 = null;
+                            gameFrame.setPlayer1(player1);
+                        }
+                    }
+                });
             }
         });
 
         player2Selector.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                IStrategy player2 = Assets.loadPlayer(String.valueOf(player2Selector.getSelectedItem()));
-                gameFrame.setPlayer2(player2);
+                final IStrategy player2 = Assets.loadPlayer(String.valueOf(player2Selector.getSelectedItem()));
+                pendingPlayer2 = player2;
+                warmUp(player2, new Runnable() {
+                    @Override
+                    public void run() {
+                        if (pendingPlayer2 == player2) {
+                            pendingPlayer2 = null;
+                            gameFrame.setPlayer2(player2);
+                        }
+                    }
+                });
             }
         });
     }
@@ -6,4 +6,11 @@ interface IPlanetLookup {
     Planet lookupPlanet(int id);
 
     Collection<Planet> getPlanets();
+
+    /**
+     * @return The length of the edge from one planet to another, or -1 if they aren't connected
+     */
+    int getDistance(int sourcePlanetId, int destinationPlanetId);
+
+    Adjacency getAdjacency();
 }
@@ -0,0 +1,283 @@
+package planetwars.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the binary map format, which loads without any parsing.
+ * <p>
+ * A file is a fixed header followed by one array per planet attribute and the edges in compressed sparse row form, all
+ * big-endian:
+ * <pre>
+ * int    magic, version, planet count n, edge count m
+ * long   length and last-modified time of the DOT file it was compiled from, or 0 if none
+ * int    id[n]
+ * int    habitability[n]
+ * long   size[n]
+ * double x[n], y[n]
+ * int    edgeStart[n + 1]      edges of planet i are edgeStart[i] until edgeStart[i + 1]
+ * int    edgeTarget[m]         index of the neighbor
+ * int    edgeLength[m]
+ * byte   base[n]               0 for none, otherwise 1 or 2 for the player whose homeworld it is
+ * </pre>
+ * Every edge is stored from both of its ends. Only the map is saved, not the state of a game on it; homeworlds load
+ * with one person on them, like maps read from DOT.
+ */
+final class MapFile {
+    private static final int MAGIC = 0x50574d50; // "PWMP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + 2 * Long.BYTES;
+
+    private MapFile() {
+    }
+
+    /**
+     * Writes the planets and their edges to the given file, replacing it.
+     *
+     * @param sourceLength   Length of the DOT file the planets were read from, or 0
+     * @param sourceModified Last-modified time of that file, or 0
+     */
+    public static void write(File file, Collection<Planet> planets, long sourceLength, long sourceModified) throws IOException {
+        Planet[] sorted = planets.toArray(new Planet[0]);
+        Arrays.sort(sorted, new Comparator<Planet>() {
+            @Override
+            public int compare(Planet planet1, Planet planet2) {
+                return Integer.compare(planet1.getId(), planet2.getId());
+            }
+        });
+        PlanetIndex index = PlanetIndex.of(Arrays.asList(sorted));
+
+        int n = sorted.length;
+        int m = 0;
+        for (Planet planet : sorted) {
+            m += planet.getEdges().size();
+        }
+
+        int[] ids = new int[n];
+        int[] habitability = new int[n];
+        long[] size = new long[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        byte[] base = new byte[n];
+        int[] edgeStart = new int[n + 1];
+        int[] edgeTarget = new int[m];
+        int[] edgeLength = new int[m];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            Planet planet = sorted[i];
+            ids[i] = planet.getId();
+            habitability[i] = planet.getHabitability();
+            size[i] = planet.getSize();
+            x[i] = planet.getLocation().getX();
+            y[i] = planet.getLocation().getY();
+            base[i] = planet.isHomeworld() ? base(planet.getOwningPlayer()) : 0;
+            edgeStart[i] = e;
+            for (Edge edge : planet.getEdges()) {
+                edgeTarget[e] = index.indexOf(edge.getDestinationPlanetId());
+                edgeLength[e] = edge.getLength();
+                e++;
+            }
+        }
+        edgeStart[n] = e;
+
+        write(file, ids, habitability, size, x, y, base, edgeStart, edgeTarget, edgeLength, sourceLength, sourceModified);
+    }
+
+    /**
+     * Writes a map given as arrays in the layout of the file, for maps that were never turned into planets.
+     *
+     * @param base Per planet, 0 for none, otherwise 1 or 2 for the player whose homeworld it is
+     */
+    public static void write(File file, int[] ids, int[] habitability, long[] size, double[] x, double[] y, byte[] base,
+                             int[] edgeStart, int[] edgeTarget, int[] edgeLength, long sourceLength, long sourceModified) throws IOException {
+        int n = ids.length;
+        int m = edgeStart[n];
+        int fileSize = size(n, m);
+        if (fileSize < 0) {
+            throw new IOException(String.format("%s: Map is too large for a map file", file));
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(fileSize);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putLong(sourceLength).putLong(sourceModified);
+        buffer.asIntBuffer().put(ids);
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        buffer.asIntBuffer().put(habitability);
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        buffer.asLongBuffer().put(size);
+        buffer.position(buffer.position() + n * Long.BYTES);
+        buffer.asDoubleBuffer().put(x);
+        buffer.position(buffer.position() + n * Double.BYTES);
+        buffer.asDoubleBuffer().put(y);
+        buffer.position(buffer.position() + n * Double.BYTES);
+        buffer.asIntBuffer().put(edgeStart, 0, n + 1);
+        buffer.position(buffer.position() + (n + 1) * Integer.BYTES);
+        buffer.asIntBuffer().put(edgeTarget, 0, m);
+        buffer.position(buffer.position() + m * Integer.BYTES);
+        buffer.asIntBuffer().put(edgeLength, 0, m);
+        buffer.position(buffer.position() + m * Integer.BYTES);
+        buffer.put(base);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the file was compiled from a DOT file with the given length and last-modified time, without
+     * reading past the header.
+     */
+    public static boolean isCompiledFrom(File file, long sourceLength, long sourceModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return false;
+                }
+            }
+            header.flip();
+            return header.getInt() == MAGIC && header.getInt() == VERSION
+                    && header.getLong(4 * Integer.BYTES) == sourceLength
+                    && header.getLong(4 * Integer.BYTES + Long.BYTES) == sourceModified;
+        }
+    }
+
+    /**
+     * Maps the file into memory and builds its planets.
+     *
+     * @return The planets, keyed by id
+     * @throws IOException If the file can't be read or isn't a valid map file
+     */
+    public static Map<Integer, Planet> read(File file, IPlanetLookup planetLookup) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException(String.format("%s: Not a map file", file));
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("%s: Unsupported map file version %d", file, version));
+        }
+        int n = buffer.getInt();
+        int m = buffer.getInt();
+        if (n < 0 || m < 0 || buffer.capacity() != size(n, m)) {
+            throw new IOException(String.format("%s: Truncated or corrupt map file", file));
+        }
+        buffer.position(HEADER_SIZE);
+
+        int[] ids = new int[n];
+        int[] habitability = new int[n];
+        long[] size = new long[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int[] edgeStart = new int[n + 1];
+        int[] edgeTarget = new int[m];
+        int[] edgeLength = new int[m];
+        byte[] base = new byte[n];
+
+        buffer.asIntBuffer().get(ids);
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        buffer.asIntBuffer().get(habitability);
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        buffer.asLongBuffer().get(size);
+        buffer.position(buffer.position() + n * Long.BYTES);
+        buffer.asDoubleBuffer().get(x);
+        buffer.position(buffer.position() + n * Double.BYTES);
+        buffer.asDoubleBuffer().get(y);
+        buffer.position(buffer.position() + n * Double.BYTES);
+        buffer.asIntBuffer().get(edgeStart);
+        buffer.position(buffer.position() + (n + 1) * Integer.BYTES);
+        buffer.asIntBuffer().get(edgeTarget);
+        buffer.position(buffer.position() + m * Integer.BYTES);
+        buffer.asIntBuffer().get(edgeLength);
+        buffer.position(buffer.position() + m * Integer.BYTES);
+        buffer.get(base);
+
+        Planet[] planets = new Planet[n];
+        Map<Integer, Planet> planetMap = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            boolean isHomeworld;
+            InternalPlayer owningPlayer;
+            switch (base[i]) {
+                case 0:
+                    isHomeworld = false;
+                    owningPlayer = InternalPlayer.NEUTRAL;
+                    break;
+                case 1:
+                    isHomeworld = true;
+                    owningPlayer = InternalPlayer.PLAYER1;
+                    break;
+                case 2:
+                    isHomeworld = true;
+                    owningPlayer = InternalPlayer.PLAYER2;
+                    break;
+                default:
+                    throw new IOException(String.format("%s: Bad base for planet %d", file, ids[i]));
+            }
+            Planet planet = new Planet(ids[i], habitability[i], size[i], owningPlayer, isHomeworld, planetLookup);
+            if (isHomeworld) {
+                planet.setPopulation(1);
+            }
+            planet.setLocation(new Point2D(x[i], y[i]));
+            planets[i] = planet;
+            planetMap.put(ids[i], planet);
+        }
+
+        if (edgeStart[0] != 0 || edgeStart[n] != m) {
+            throw new IOException(String.format("%s: Corrupt edge table", file));
+        }
+        for (int i = 0; i < n; i++) {
+            if (edgeStart[i + 1] < edgeStart[i]) {
+                throw new IOException(String.format("%s: Corrupt edge table", file));
+            }
+            for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                int j = edgeTarget[e];
+                if (j < 0 || j >= n) {
+                    throw new IOException(String.format("%s: Corrupt edge table", file));
+                }
+                // Both ends store the edge, and adding it once connects both of them
+                if (i < j) {
+                    planets[i].addEdge(planets[j], edgeLength[e]);
+                }
+            }
+        }
+
+        return planetMap;
+    }
+
+    private static byte base(InternalPlayer owningPlayer) {
+        switch (owningPlayer) {
+            case PLAYER1:
+                return 1;
+            case PLAYER2:
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return The size of a file with the given numbers of planets and edges, or -1 if it can't be mapped in one go
+     */
+    private static int size(int n, int m) {
+        long size = HEADER_SIZE + (long) n * (2 * Integer.BYTES + Long.BYTES + 2 * Double.BYTES + 1)
+                + (long) (n + 1) * Integer.BYTES + (long) m * 2 * Integer.BYTES;
+        return size > Integer.MAX_VALUE ? -1 : (int) size;
+    }
+}
@@ -0,0 +1,534 @@
+package planetwars.core;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates maps of any size for stress testing; the maps in {@code graphs/} only have a dozen or so planets.
+ * <p>
+ * Planets are scattered over a grid of buckets, at most one per bucket as {@link PlanetWarsFrame} expects, and joined
+ * to planets near them. Every planet can reach every other. The map is point symmetric: each planet has a twin on the
+ * opposite side of the center of the grid with the same attributes and mirrored edges, and the two homeworlds are such
+ * twins, so neither player starts out ahead.
+ * <p>
+ * Degrees are targets rather than exact: the edges that keep the map connected come on top of them, and a planet with
+ * few neighbors in reach may end up short. The same settings and seed always give the same map.
+ * <p>
+ * Only grids of up to {@link #WINDOW_GRID_WIDTH} by {@link #WINDOW_GRID_HEIGHT} buckets fit in the game window. Larger
+ * maps are written to {@code graphs/large/} instead of {@code graphs/}, so that neither the window nor the tournament
+ * lists them; they load under names like {@code large/<name>}.
+ */
+final class MapGenerator {
+    /**
+     * How the number of edges wanted per planet is drawn.
+     */
+    enum DegreeDistribution {
+        /**
+         * Every degree from the minimum to the maximum is equally likely.
+         */
+        UNIFORM,
+        /**
+         * Degree d is drawn with a chance proportional to d^-2.5, so most planets have few edges and a few have many.
+         */
+        POWER_LAW,
+    }
+
+    /**
+     * The bucket grid of {@link PlanetWarsFrame} in the game window.
+     */
+    static final int WINDOW_GRID_WIDTH = GameWindow.PLANET_WARS_WIDTH / PlanetWarsFrame.BUCKET_WIDTH;
+    static final int WINDOW_GRID_HEIGHT = GameWindow.PLANET_WARS_HEIGHT / PlanetWarsFrame.BUCKET_WIDTH;
+    private static final String LARGE_GRAPHS = "large/";
+
+    private static final double DEFAULT_DENSITY = 0.25;
+    private static final double POWER_LAW_EXPONENT = 2.5;
+    private static final int MAX_LINK_RADIUS = 16;
+    private static final int ATTEMPTS_PER_EDGE = 8;
+
+    private final int planets;
+    private final long seed;
+    private int width;
+    private int height;
+    private DegreeDistribution degreeDistribution = DegreeDistribution.UNIFORM;
+    private int minDegree = 1;
+    private int maxDegree = 4;
+    private int minWeight = 1;
+    private int maxWeight = 6;
+    private boolean distanceWeights;
+    private int minHabitability = 1;
+    private int maxHabitability = 8;
+    private long minSize = 50;
+    private long maxSize = 600;
+
+    // The generated map, or null until generate() is called; planet ids are their indices, in row-major bucket order
+    private int[] cells;
+    private int[] habitability;
+    private long[] size;
+    private int[] targetDegree;
+    private int[] degree;
+    private int[][] neighbors;
+    private int[][] weights;
+    private int[] cellPlanets;
+    private Random random;
+
+    public MapGenerator(int planets, long seed) {
+        if (planets < 2) {
+            throw new IllegalArgumentException("A map needs at least two planets");
+        }
+        this.planets = planets;
+        this.seed = seed;
+
+        int side = (int) Math.ceil(Math.sqrt(planets / DEFAULT_DENSITY));
+        if (planets % 2 == 1 && side % 2 == 0) {
+            // The lone planet without a twin needs the center bucket
+            side++;
+        }
+        this.width = side;
+        this.height = side;
+    }
+
+    /**
+     * Sets the size of the grid, in buckets; by default it is square, with about one planet in four buckets. Maps only
+     * fit in the game window if the grid is no larger than the window's; see {@link #fitsWindow()}.
+     */
+    public void setGrid(int width, int height) {
+        if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Bad grid size %dx%d", width, height));
+        }
+        if ((long) width * height < this.planets) {
+            throw new IllegalArgumentException(String.format("A %dx%d grid can't hold %d planets", width, height, this.planets));
+        }
+        if (this.planets % 2 == 1 && (width % 2 == 0 || height % 2 == 0)) {
+            throw new IllegalArgumentException("An odd number of planets needs a grid with a center bucket");
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = null;
+    }
+
+    public void setDegrees(DegreeDistribution degreeDistribution, int minDegree, int maxDegree) {
+        checkRange("degree", 1, minDegree, maxDegree);
+        this.degreeDistribution = degreeDistribution;
+        this.minDegree = minDegree;
+        this.maxDegree = maxDegree;
+        this.cells = null;
+    }
+
+    /**
+     * @param distanceWeights Whether an edge's weight is the distance between its planets, kept within the range,
+     *                        rather than drawn at random from it
+     */
+    public void setWeights(int minWeight, int maxWeight, boolean distanceWeights) {
+        checkRange("weight", 1, minWeight, maxWeight);
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+        this.distanceWeights = distanceWeights;
+        this.cells = null;
+    }
+
+    public void setHabitability(int minHabitability, int maxHabitability) {
+        checkRange("habitability", 0, minHabitability, maxHabitability);
+        this.minHabitability = minHabitability;
+        this.maxHabitability = maxHabitability;
+        this.cells = null;
+    }
+
+    public void setSize(long minSize, long maxSize) {
+        if (minSize < 1 || maxSize < minSize || maxSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Bad size range %d-%d", minSize, maxSize));
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.cells = null;
+    }
+
+    private static void checkRange(String what, int lowest, int min, int max) {
+        if (min < lowest || max < min) {
+            throw new IllegalArgumentException(String.format("Bad %s range %d-%d", what, min, max));
+        }
+    }
+
+    /**
+     * Generates the map; the write methods call this if it hasn't been done since the settings last changed.
+     */
+    public void generate() {
+        this.random = new Random(this.seed);
+        this.placePlanets();
+
+        this.degree = new int[this.planets];
+        this.neighbors = new int[this.planets][];
+        this.weights = new int[this.planets][];
+        for (int i = 0; i < this.planets; i++) {
+            this.neighbors[i] = new int[this.targetDegree[i] + 2];
+            this.weights[i] = new int[this.targetDegree[i] + 2];
+        }
+
+        // Joining every planet to one before it in bucket order makes the map connected
+        for (int i = 1; i < this.planets; i++) {
+            this.addTwinEdges(i, this.findEarlierNeighbor(i));
+        }
+
+        int radius = Math.max(2, (int) Math.ceil(Math.sqrt(this.maxDegree * (double) this.width * this.height / this.planets)));
+        for (int i = 0; i < this.planets; i++) {
+            int x = this.cells[i] % this.width;
+            int y = this.cells[i] / this.width;
+            for (int attempts = ATTEMPTS_PER_EDGE * this.targetDegree[i]; attempts > 0 && this.degree[i] < this.targetDegree[i]; attempts--) {
+                int neighborX = x + this.random.nextInt(2 * radius + 1) - radius;
+                int neighborY = y + this.random.nextInt(2 * radius + 1) - radius;
+                if (neighborX < 0 || neighborX >= this.width || neighborY < 0 || neighborY >= this.height) {
+                    continue;
+                }
+                int j = this.cellPlanets[neighborY * this.width + neighborX];
+                if (j >= 0 && j != i && this.degree[j] < this.targetDegree[j]) {
+                    this.addTwinEdges(i, j);
+                }
+            }
+        }
+
+        this.cellPlanets = null;
+        this.random = null;
+    }
+
+    /**
+     * Picks the buckets and attributes of all planets. Bucket c's twin is the bucket at the same place counting from
+     * the end, so the first half of the planets pick buckets in the first half of the grid and the rest are their twins.
+     */
+    private void placePlanets() {
+        int cellCount = this.width * this.height;
+        int half = cellCount / 2;
+        int pairs = this.planets / 2;
+
+        this.cells = new int[this.planets];
+        this.habitability = new int[this.planets];
+        this.size = new long[this.planets];
+        this.targetDegree = new int[this.planets];
+
+        // Selection sampling picks the buckets in increasing order, without having to shuffle the whole grid
+        int needed = pairs;
+        int chosen = 0;
+        for (int c = 0; c < half && needed > 0; c++) {
+            if (this.random.nextInt(half - c) < needed) {
+                this.cells[chosen++] = c;
+                needed--;
+            }
+        }
+        if (this.planets % 2 == 1) {
+            this.cells[pairs] = half;
+        }
+
+        double[] degreeWeights = this.degreeWeights();
+        for (int i = 0; i < this.planets - pairs; i++) {
+            this.habitability[i] = this.minHabitability + this.random.nextInt(this.maxHabitability - this.minHabitability + 1);
+            this.size[i] = this.minSize + this.random.nextInt((int) (this.maxSize - this.minSize + 1));
+            this.targetDegree[i] = this.drawDegree(degreeWeights);
+        }
+        for (int i = 0; i < pairs; i++) {
+            int twin = this.planets - 1 - i;
+            this.cells[twin] = cellCount - 1 - this.cells[i];
+            this.habitability[twin] = this.habitability[i];
+            this.size[twin] = this.size[i];
+            this.targetDegree[twin] = this.targetDegree[i];
+        }
+
+        this.cellPlanets = new int[cellCount];
+        Arrays.fill(this.cellPlanets, -1);
+        for (int i = 0; i < this.planets; i++) {
+            this.cellPlanets[this.cells[i]] = i;
+        }
+    }
+
+    /**
+     * @return The cumulative chances of the degrees from minDegree up, or null if they are all equally likely
+     */
+    private double[] degreeWeights() {
+        if (this.degreeDistribution == DegreeDistribution.UNIFORM) {
+            return null;
+        }
+        double[] cumulative = new double[this.maxDegree - this.minDegree + 1];
+        double total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += Math.pow(this.minDegree + i, -POWER_LAW_EXPONENT);
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    private int drawDegree(double[] cumulative) {
+        if (cumulative == null) {
+            return this.minDegree + this.random.nextInt(this.maxDegree - this.minDegree + 1);
+        }
+        int i = Arrays.binarySearch(cumulative, this.random.nextDouble() * cumulative[cumulative.length - 1]);
+        return this.minDegree + (i >= 0 ? i : -i - 1);
+    }
+
+    /**
+     * Finds the closest planet before the given one in bucket order, looking in growing squares around it. Falls back
+     * to the planet just before it if there is none nearby.
+     */
+    private int findEarlierNeighbor(int i) {
+        int x = this.cells[i] % this.width;
+        int y = this.cells[i] / this.width;
+        for (int radius = 1; radius <= MAX_LINK_RADIUS; radius++) {
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int dy = -radius; dy <= radius; dy++) {
+                int neighborY = y + dy;
+                if (neighborY < 0 || neighborY >= this.height) {
+                    continue;
+                }
+                // Only the edge of the square is new at this radius
+                int step = dy == -radius || dy == radius ? 1 : 2 * radius;
+                for (int dx = -radius; dx <= radius; dx += step) {
+                    int neighborX = x + dx;
+                    if (neighborX < 0 || neighborX >= this.width) {
+                        continue;
+                    }
+                    int j = this.cellPlanets[neighborY * this.width + neighborX];
+                    if (j >= 0 && j < i && dx * dx + dy * dy < bestDistance) {
+                        best = j;
+                        bestDistance = dx * dx + dy * dy;
+                    }
+                }
+            }
+            if (best >= 0) {
+                return best;
+            }
+        }
+        return i - 1;
+    }
+
+    /**
+     * Adds an edge and the edge between the twins of its planets, with the same weight.
+     */
+    private void addTwinEdges(int i, int j) {
+        int weight;
+        if (this.distanceWeights) {
+            double dx = this.cells[i] % this.width - this.cells[j] % this.width;
+            double dy = this.cells[i] / this.width - this.cells[j] / this.width;
+            weight = (int) Math.max(this.minWeight, Math.min(this.maxWeight, Math.round(Math.sqrt(dx * dx + dy * dy))));
+        } else {
+            weight = this.minWeight + this.random.nextInt(this.maxWeight - this.minWeight + 1);
+        }
+        this.addEdge(i, j, weight);
+        this.addEdge(this.planets - 1 - i, this.planets - 1 - j, weight);
+    }
+
+    private void addEdge(int i, int j, int weight) {
+        if (i == j) {
+            return;
+        }
+        for (int k = 0; k < this.degree[i]; k++) {
+            if (this.neighbors[i][k] == j) {
+                return;
+            }
+        }
+        this.addHalfEdge(i, j, weight);
+        this.addHalfEdge(j, i, weight);
+    }
+
+    private void addHalfEdge(int i, int j, int weight) {
+        if (this.degree[i] == this.neighbors[i].length) {
+            this.neighbors[i] = Arrays.copyOf(this.neighbors[i], 2 * this.degree[i]);
+            this.weights[i] = Arrays.copyOf(this.weights[i], 2 * this.degree[i]);
+        }
+        this.neighbors[i][this.degree[i]] = j;
+        this.weights[i][this.degree[i]] = weight;
+        this.degree[i]++;
+    }
+
+    private void ensureGenerated() {
+        if (this.cells == null || this.degree == null) {
+            this.generate();
+        }
+    }
+
+    /**
+     * Writes the map as DOT, in the form {@link SystemLoader} reads.
+     */
+    public void writeDot(File file) throws IOException {
+        this.ensureGenerated();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            // Millions of lines are too many for String.format, so they are built by hand
+            StringBuilder line = new StringBuilder();
+            out.write("graph g {\n");
+            for (int i = 0; i < this.planets; i++) {
+                line.setLength(0);
+                line.append("  ").append(i).append(" [ ");
+                if (i == 0) {
+                    line.append("base = 1, ");
+                } else if (i == this.planets - 1) {
+                    line.append("base = 2, ");
+                }
+                line.append("habit = ").append(this.habitability[i])
+                        .append(", size = ").append(this.size[i])
+                        .append(", x = ").append(this.cells[i] % this.width)
+                        .append(", y = ").append(this.cells[i] / this.width)
+                        .append(" ]\n");
+                out.append(line);
+            }
+            out.write('\n');
+            for (int i = 0; i < this.planets; i++) {
+                for (int k = 0; k < this.degree[i]; k++) {
+                    int j = this.neighbors[i][k];
+                    if (j > i) {
+                        line.setLength(0);
+                        line.append("  ").append(i).append(" -- ").append(j)
+                                .append(" [ label = ").append(this.weights[i][k])
+                                .append(", weight = ").append(this.weights[i][k])
+                                .append(" ]\n");
+                        out.append(line);
+                    }
+                }
+            }
+            out.write("}\n");
+        }
+    }
+
+    /**
+     * Writes the map in the binary {@link MapFile} format.
+     */
+    public void writeBinary(File file) throws IOException {
+        this.writeBinary(file, 0, 0);
+    }
+
+    private void writeBinary(File file, long sourceLength, long sourceModified) throws IOException {
+        this.ensureGenerated();
+        int[] ids = new int[this.planets];
+        double[] x = new double[this.planets];
+        double[] y = new double[this.planets];
+        byte[] base = new byte[this.planets];
+        int[] edgeStart = new int[this.planets + 1];
+        for (int i = 0; i < this.planets; i++) {
+            ids[i] = i;
+            x[i] = this.cells[i] % this.width;
+            y[i] = this.cells[i] / this.width;
+            edgeStart[i + 1] = edgeStart[i] + this.degree[i];
+        }
+        base[0] = 1;
+        base[this.planets - 1] = 2;
+
+        int[] edgeTarget = new int[edgeStart[this.planets]];
+        int[] edgeLength = new int[edgeStart[this.planets]];
+        for (int i = 0; i < this.planets; i++) {
+            System.arraycopy(this.neighbors[i], 0, edgeTarget, edgeStart[i], this.degree[i]);
+            System.arraycopy(this.weights[i], 0, edgeLength, edgeStart[i], this.degree[i]);
+        }
+
+        MapFile.write(file, ids, this.habitability, this.size, x, y, base, edgeStart, edgeTarget, edgeLength, sourceLength, sourceModified);
+    }
+
+    /**
+     * Writes the map under the given name, along with its compiled form so that {@link SystemLoader} can load it
+     * without parsing it first. A map that fits the game window goes in {@code graphs/}; a larger one goes in
+     * {@code graphs/large/}, where the window doesn't list it.
+     *
+     * @return The name to load the map by
+     */
+    public String write(String graph) throws IOException {
+        String name = this.fitsWindow() ? graph : LARGE_GRAPHS + graph;
+        File source = Assets.getGraphFile(name);
+        File directory = source.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(String.format("%s: Can't create directory", directory));
+        }
+        this.writeDot(source);
+        this.writeBinary(Assets.getCompiledGraphFile(name), source.length(), source.lastModified());
+        return name;
+    }
+
+    /**
+     * @return Whether the map's grid fits in the game window, whose {@link PlanetWarsFrame} has no room for planets
+     * outside its own bucket grid
+     */
+    public boolean fitsWindow() {
+        return this.width <= WINDOW_GRID_WIDTH && this.height <= WINDOW_GRID_HEIGHT;
+    }
+
+    public int getEdgeCount() {
+        this.ensureGenerated();
+        int halfEdges = 0;
+        for (int i = 0; i < this.planets; i++) {
+            halfEdges += this.degree[i];
+        }
+        return halfEdges / 2;
+    }
+
+    /**
+     * Usage: {@code MapGenerator <planets> [seed] [name] [option=value ...]}, with the options
+     * {@code grid=<width>x<height>}, {@code degree=<min>-<max>}, {@code distribution=uniform|power_law},
+     * {@code weight=<min>-<max>}, {@code distanceWeights=true}, {@code habit=<min>-<max>} and {@code size=<min>-<max>}.
+     * The map is written to {@code graphs/<name>.dot}, compiled, or to {@code graphs/large/<name>.dot} if it doesn't fit
+     * in the game window.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: MapGenerator <planets> [seed] [name] [option=value ...]");
+            return;
+        }
+        int planets = Integer.parseInt(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : new Random().nextLong();
+        String name = args.length > 2 ? args[2] : String.format("generated_%d_%d", planets, seed);
+        MapGenerator generator = new MapGenerator(planets, seed);
+
+        DegreeDistribution distribution = DegreeDistribution.UNIFORM;
+        int[] degrees = {generator.minDegree, generator.maxDegree};
+        int[] weights = {generator.minWeight, generator.maxWeight};
+        boolean distanceWeights = false;
+        for (int i = 3; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            String value = option.length > 1 ? option[1] : "";
+            switch (option[0]) {
+                case "grid":
+                    String[] grid = value.split("x", 2);
+                    generator.setGrid(Integer.parseInt(grid[0]), Integer.parseInt(grid[1]));
+                    break;
+                case "degree":
+                    degrees = parseRange(value);
+                    break;
+                case "distribution":
+                    distribution = DegreeDistribution.valueOf(value.toUpperCase());
+                    break;
+                case "weight":
+                    weights = parseRange(value);
+                    break;
+                case "distanceWeights":
+                    distanceWeights = Boolean.parseBoolean(value);
+                    break;
+                case "habit":
+                    int[] habitability = parseRange(value);
+                    generator.setHabitability(habitability[0], habitability[1]);
+                    break;
+                case "size":
+                    int[] sizes = parseRange(value);
+                    generator.setSize(sizes[0], sizes[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown option %s", option[0]));
+            }
+        }
+        generator.setDegrees(distribution, degrees[0], degrees[1]);
+        generator.setWeights(weights[0], weights[1], distanceWeights);
+
+        long start = System.nanoTime();
+        generator.generate();
+        long generated = System.nanoTime();
+        name = generator.write(name);
+        long written = System.nanoTime();
+        System.out.println(String.format("%s: %d planets, %d edges on a %dx%d grid; generated in %.2fs, written in %.2fs",
+                name, planets, generator.getEdgeCount(), generator.width, generator.height,
+                (generated - start) / 1e9, (written - generated) / 1e9));
+    }
+
+    private static int[] parseRange(String range) {
+        String[] bounds = range.split("-", 2);
+        int min = Integer.parseInt(bounds[0]);
+        return new int[]{min, bounds.length > 1 ? Integer.parseInt(bounds[1]) : min};
+    }
+}
@@ -0,0 +1,490 @@
+package planetwars.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming parser for the part of the DOT language that maps are written in. Planets are built as their statements
+ * are read, without a parse tree or attribute maps in between, and attribute values are parsed straight from the input
+ * buffer.
+ * <p>
+ * Accepted input is a {@code graph} or {@code digraph} with node statements carrying the {@code habit}, {@code size},
+ * {@code x} and {@code y} attributes, optionally {@code base = 1} or {@code base = 2}, and edge statements carrying a
+ * {@code weight}. Other attributes, graph attributes and comments are skipped. Mistakes are reported as an
+ * {@link IllegalArgumentException} naming the line they are on.
+ */
+final class MapParser {
+    private static final int BUFFER_SIZE = 8192;
+
+    private enum Token {
+        ID,
+        LEFT_BRACE,
+        RIGHT_BRACE,
+        LEFT_BRACKET,
+        RIGHT_BRACKET,
+        EQUALS,
+        COMMA,
+        SEMICOLON,
+        EDGE_OP,
+        END,
+    }
+
+    private final Reader in;
+    private final String source;
+    private final IPlanetLookup planetLookup;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    // The current token; for IDs its text is in text[0, textLength)
+    private Token token;
+    private int tokenLine;
+    private char[] text = new char[64];
+    private int textLength;
+
+    private final Map<Integer, Planet> planets = new HashMap<>();
+
+    // Edges are kept until all planets are known, since DOT allows using a node before declaring it
+    private int[] edgeEnds = new int[64];
+    private int[] edgeWeights = new int[32];
+    private int[] edgeLines = new int[32];
+    private int edgeCount;
+
+    private MapParser(Reader in, String source, IPlanetLookup planetLookup) {
+        this.in = in;
+        this.source = source;
+        this.planetLookup = planetLookup;
+    }
+
+    /**
+     * Reads a whole map.
+     *
+     * @param source Name of the input, used in error messages
+     * @return The planets, keyed by id
+     * @throws IllegalArgumentException If the map is malformed
+     */
+    public static Map<Integer, Planet> parse(Reader in, String source, IPlanetLookup planetLookup) throws IOException {
+        return new MapParser(in, source, planetLookup).parseGraph();
+    }
+
+    private Map<Integer, Planet> parseGraph() throws IOException {
+        this.next();
+        if (this.isKeyword("strict")) {
+            this.next();
+        }
+        if (!this.isKeyword("graph") && !this.isKeyword("digraph")) {
+            throw this.error("Expected 'graph' or 'digraph'");
+        }
+        this.next();
+        if (this.token == Token.ID) {
+            this.next();
+        }
+        this.expect(Token.LEFT_BRACE, "'{'");
+
+        while (this.token != Token.RIGHT_BRACE) {
+            if (this.token == Token.END) {
+                throw this.error("Missing '}' at end of graph");
+            }
+            this.parseStatement();
+        }
+        this.next();
+        if (this.token != Token.END) {
+            throw this.error("Unexpected input after the end of the graph");
+        }
+
+        for (int i = 0; i < this.edgeCount; i++) {
+            Planet planet1 = this.planets.get(this.edgeEnds[2 * i]);
+            Planet planet2 = this.planets.get(this.edgeEnds[2 * i + 1]);
+            if (planet1 == null || planet2 == null) {
+                int missing = planet1 == null ? this.edgeEnds[2 * i] : this.edgeEnds[2 * i + 1];
+                throw new IllegalArgumentException(String.format("%s:%d: Edge to undeclared planet %d", this.source, this.edgeLines[i], missing));
+            }
+            planet1.addEdge(planet2, this.edgeWeights[i]);
+        }
+
+        return this.planets;
+    }
+
+    private void parseStatement() throws IOException {
+        if (this.token != Token.ID) {
+            throw this.error("Expected a node or edge statement");
+        }
+
+        if (this.isKeyword("node") || this.isKeyword("edge")) {
+            throw this.error("Default node and edge attributes aren't supported; give each statement its own");
+        }
+        if (this.isKeyword("graph")) {
+            this.next();
+            this.skipAttributes();
+        } else {
+            int statementLine = this.tokenLine;
+            int id = this.intValue("planet id");
+            this.next();
+
+            if (this.token == Token.EQUALS) {
+                throw this.error("Graph attributes must be named, not numbered");
+            } else if (this.token == Token.EDGE_OP) {
+                this.parseEdges(id, statementLine);
+            } else {
+                this.parseNode(id, statementLine);
+            }
+        }
+
+        if (this.token == Token.SEMICOLON) {
+            this.next();
+        }
+    }
+
+    private void parseNode(int id, int statementLine) throws IOException {
+        int habitability = -1;
+        long size = -1;
+        int x = -1;
+        int y = -1;
+        InternalPlayer owningPlayer = InternalPlayer.NEUTRAL;
+        boolean isHomeworld = false;
+
+        while (this.token == Token.LEFT_BRACKET) {
+            this.next();
+            while (this.token != Token.RIGHT_BRACKET) {
+                String name = null;
+                if (this.isKeyword("habit")) {
+                    name = "habit";
+                } else if (this.isKeyword("size")) {
+                    name = "size";
+                } else if (this.isKeyword("x")) {
+                    name = "x";
+                } else if (this.isKeyword("y")) {
+                    name = "y";
+                } else if (this.isKeyword("base")) {
+                    name = "base";
+                }
+                this.skipAttributeName();
+
+                if (name == null) {
+                    this.next();
+                } else {
+                    int value = this.intValue(name);
+                    this.next();
+                    switch (name) {
+                        case "habit":
+                            habitability = value;
+                            break;
+                        case "size":
+                            size = value;
+                            break;
+                        case "x":
+                            x = value;
+                            break;
+                        case "y":
+                            y = value;
+                            break;
+                        default:
+                            isHomeworld = true;
+                            if (value == 1) {
+                                owningPlayer = InternalPlayer.PLAYER1;
+                            } else if (value == 2) {
+                                owningPlayer = InternalPlayer.PLAYER2;
+                            } else {
+                                throw new IllegalArgumentException(String.format("%s:%d: Base must be either 1 or 2", this.source, this.tokenLine));
+                            }
+                    }
+                }
+                this.skipSeparator();
+            }
+            this.next();
+        }
+
+        if (habitability < 0 || size < 0 || x < 0 || y < 0) {
+            throw new IllegalArgumentException(String.format("%s:%d: Planet %d needs habit, size, x and y", this.source, statementLine, id));
+        }
+        Planet planet = new Planet(id, habitability, size, owningPlayer, isHomeworld, this.planetLookup);
+        if (isHomeworld) {
+            planet.setPopulation(1);
+        }
+        planet.setLocation(new Point2D(x, y));
+        if (this.planets.put(id, planet) != null) {
+            throw new IllegalArgumentException(String.format("%s:%d: Planet %d is declared twice", this.source, statementLine, id));
+        }
+    }
+
+    private void parseEdges(int firstId, int statementLine) throws IOException {
+        int start = this.edgeCount;
+        int previousId = firstId;
+        while (this.token == Token.EDGE_OP) {
+            this.next();
+            int id = this.intValue("planet id");
+            this.addEdge(previousId, id, statementLine);
+            previousId = id;
+            this.next();
+        }
+
+        int weight = -1;
+        while (this.token == Token.LEFT_BRACKET) {
+            this.next();
+            while (this.token != Token.RIGHT_BRACKET) {
+                boolean isWeight = this.isKeyword("weight");
+                this.skipAttributeName();
+                if (isWeight) {
+                    weight = this.intValue("weight");
+                }
+                this.next();
+                this.skipSeparator();
+            }
+            this.next();
+        }
+
+        if (weight < 0) {
+            throw new IllegalArgumentException(String.format("%s:%d: Edge needs a weight", this.source, statementLine));
+        }
+        for (int i = start; i < this.edgeCount; i++) {
+            this.edgeWeights[i] = weight;
+        }
+    }
+
+    private void addEdge(int id1, int id2, int statementLine) {
+        if (this.edgeCount == this.edgeWeights.length) {
+            int capacity = this.edgeCount * 2;
+            this.edgeEnds = Arrays.copyOf(this.edgeEnds, 2 * capacity);
+            this.edgeWeights = Arrays.copyOf(this.edgeWeights, capacity);
+            this.edgeLines = Arrays.copyOf(this.edgeLines, capacity);
+        }
+        this.edgeEnds[2 * this.edgeCount] = id1;
+        this.edgeEnds[2 * this.edgeCount + 1] = id2;
+        this.edgeLines[this.edgeCount] = statementLine;
+        this.edgeCount++;
+    }
+
+    private void skipAttributes() throws IOException {
+        while (this.token == Token.LEFT_BRACKET) {
+            this.next();
+            while (this.token != Token.RIGHT_BRACKET) {
+                this.skipAttributeName();
+                this.next();
+                this.skipSeparator();
+            }
+            this.next();
+        }
+    }
+
+    /**
+     * Moves from an attribute name to its value.
+     */
+    private void skipAttributeName() throws IOException {
+        if (this.token != Token.ID) {
+            throw this.error("Expected an attribute name");
+        }
+        this.next();
+        this.expect(Token.EQUALS, "'='");
+        if (this.token != Token.ID) {
+            throw this.error("Expected an attribute value");
+        }
+    }
+
+    private void skipSeparator() throws IOException {
+        if (this.token == Token.COMMA || this.token == Token.SEMICOLON) {
+            this.next();
+        } else if (this.token == Token.END) {
+            throw this.error("Missing ']'");
+        }
+    }
+
+    private void expect(Token expected, String description) throws IOException {
+        if (this.token != expected) {
+            throw this.error(String.format("Expected %s", description));
+        }
+        this.next();
+    }
+
+    private boolean isKeyword(String keyword) {
+        if (this.token != Token.ID || this.textLength != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < this.textLength; i++) {
+            if (this.text[i] != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the current token as a non-negative int, without making a string of it.
+     */
+    private int intValue(String what) {
+        if (this.token != Token.ID || this.textLength == 0) {
+            throw this.error(String.format("Expected a number for %s", what));
+        }
+        long value = 0;
+        for (int i = 0; i < this.textLength; i++) {
+            char c = this.text[i];
+            if (c < '0' || c > '9') {
+                throw this.error(String.format("Expected a number for %s, found '%s'", what, new String(this.text, 0, this.textLength)));
+            }
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw this.error(String.format("Number too large for %s", what));
+            }
+        }
+        return (int) value;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("%s:%d: %s", this.source, this.tokenLine, message));
+    }
+
+    // Lexer
+
+    private int peek() throws IOException {
+        if (this.position == this.limit) {
+            this.limit = this.in.read(this.buffer, 0, this.buffer.length);
+            this.position = 0;
+            if (this.limit <= 0) {
+                this.limit = 0;
+                return -1;
+            }
+        }
+        return this.buffer[this.position];
+    }
+
+    private int read() throws IOException {
+        int c = this.peek();
+        if (c >= 0) {
+            this.position++;
+            if (c == '\n') {
+                this.line++;
+            }
+        }
+        return c;
+    }
+
+    private void next() throws IOException {
+        this.skipWhitespaceAndComments();
+        this.tokenLine = this.line;
+        this.textLength = 0;
+
+        int c = this.read();
+        switch (c) {
+            case -1:
+                this.token = Token.END;
+                return;
+            case '{':
+                this.token = Token.LEFT_BRACE;
+                return;
+            case '}':
+                this.token = Token.RIGHT_BRACE;
+                return;
+            case '[':
+                this.token = Token.LEFT_BRACKET;
+                return;
+            case ']':
+                this.token = Token.RIGHT_BRACKET;
+                return;
+            case '=':
+                this.token = Token.EQUALS;
+                return;
+            case ',':
+                this.token = Token.COMMA;
+                return;
+            case ';':
+                this.token = Token.SEMICOLON;
+                return;
+            case '"':
+                this.readQuoted();
+                return;
+            case '-':
+                if (this.peek() == '-' || this.peek() == '>') {
+                    this.read();
+                    this.token = Token.EDGE_OP;
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (!isIdChar(c)) {
+            throw this.error(String.format("Unexpected character '%c'", (char) c));
+        }
+        this.append((char) c);
+        while (isIdChar(this.peek())) {
+            this.append((char) this.read());
+        }
+        this.token = Token.ID;
+    }
+
+    private void readQuoted() throws IOException {
+        int c;
+        while ((c = this.read()) != '"') {
+            if (c < 0) {
+                throw this.error("Unterminated string");
+            }
+            if (c == '\\' && this.peek() == '"') {
+                c = this.read();
+            }
+            this.append((char) c);
+        }
+        this.token = Token.ID;
+    }
+
+    private void skipWhitespaceAndComments() throws IOException {
+        while (true) {
+            int c = this.peek();
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                this.read();
+            } else if (c == '#') {
+                this.skipLine();
+            } else if (c == '/') {
+                this.read();
+                int d = this.peek();
+                if (d == '/') {
+                    this.skipLine();
+                } else if (d == '*') {
+                    this.read();
+                    this.skipBlockComment();
+                } else {
+                    this.tokenLine = this.line;
+                    throw this.error("Unexpected character '/'");
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = this.read();
+        } while (c >= 0 && c != '\n');
+    }
+
+    private void skipBlockComment() throws IOException {
+        int startLine = this.line;
+        int previous = 0;
+        int c;
+        while ((c = this.read()) >= 0) {
+            if (previous == '*' && c == '/') {
+                return;
+            }
+            previous = c;
+        }
+        this.tokenLine = startLine;
+        throw this.error("Unterminated comment");
+    }
+
+    private void append(char c) {
+        if (this.textLength == this.text.length) {
+            this.text = Arrays.copyOf(this.text, this.textLength * 2);
+        }
+        this.text[this.textLength++] = c;
+    }
+
+    private static boolean isIdChar(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '.' || c >= 0x80;
+    }
+}
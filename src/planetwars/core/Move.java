@@ -4,20 +4,26 @@ package planetwars.core;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A shuttle in flight as the renderer draws it. Where it is drawn depends only on how far the game has got, so a
+ * renderer that falls behind or skips frames still shows it where the game has it.
+ */
 final class Move {
 
     private Shuttle shuttle;
-    private int time;
     private InternalPlayer who;
     private List<Point2D> path;
+    private final int launchTurn;
+    private final int arrivalTurn;
 
     private Planet src;
     private Planet target;
 
     public Move(Planet src, Planet target, Shuttle shuttle, int time, PathFinder pathFinder) {
         this.shuttle = shuttle;
-        this.time = time;
-        this.who = src.getOwningPlayer();
+        this.who = shuttle.getOwningPlayer();
+        this.arrivalTurn = shuttle.getArrivalTurn();
+        this.launchTurn = this.arrivalTurn - Math.max(1, shuttle.getFlightTime());
 
         this.src = src;
         this.target = target;
@@ -38,15 +44,25 @@ final class Move {
         return shuttle.getNumberPeople();
     }
 
-    public boolean hasReached() {
-        return path.isEmpty();
+    /**
+     * True once the game has landed the shuttle, as of the given turn.
+     */
+    public boolean hasReached(int turn) {
+        return turn >= arrivalTurn;
     }
 
-    public Point2D nextPos() {
-        if (hasReached()) {
+    /**
+     * Gets where the shuttle is at a point in the game.
+     *
+     * @param turn The last turn played plus how far the game is into the next one, from 0 to 1
+     * @return The position, or null if the shuttle hadn't been launched yet; a shuttle whose landing is late is kept at
+     * the end of its path
+     */
+    public Point2D getPosition(double turn) {
+        if (path.isEmpty() || turn < launchTurn) {
             return null;
-        } else {
-            return path.remove(0);
         }
+        int step = (int) ((turn - launchTurn) / (arrivalTurn - launchTurn) * path.size());
+        return path.get(Math.min(step, path.size() - 1));
     }
 }
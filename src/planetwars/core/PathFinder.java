@@ -7,9 +7,11 @@ import static planetwars.core.PlanetWarsFrame.PLANET_RADIUS;
 
 final class PathFinder {
     private PlanetWarsFrame planetWarsFrame;
+    private Random random;
 
     public PathFinder(PlanetWarsFrame frame) {
         this.planetWarsFrame = frame;
+        this.random = new Random(frame.planetWars.getSeed());
     }
 
     private Map<Tuple3, List<Point2D>> cachedPaths = new HashMap<>();
@@ -130,9 +132,8 @@ final class PathFinder {
     private List<Point2D> bufferPath(List<Point2D> path, double factor, boolean straight) {
 
         List<Point2D> bufferedPath = new ArrayList<>();
-        Random rand = new Random();
-        int alt = Math.max(5, rand.nextInt(10));
-        int phase = Math.max(15, rand.nextInt(20));
+        int alt = Math.max(5, random.nextInt(10));
+        int phase = Math.max(15, random.nextInt(20));
         for (int i = 0; i < path.size() - 1; i++) {
             Point2D src = path.get(i);
             Point2D target = path.get(i + 1);
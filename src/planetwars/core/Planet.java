@@ -3,7 +3,9 @@ package planetwars.core;
 import planetwars.publicapi.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -15,9 +17,15 @@ final class Planet {
     private long population;
     private InternalPlayer owningPlayer;
     private boolean isHomeworld;
-    private List<Shuttle> incomingShuttles;
+    private Set<Shuttle> incomingShuttles;
+    private List<Shuttle> arrivingShuttles;
     private Point2D location;
 
+    // Snapshot data that is shared between turns; see getPlanetSnapshot and getVisiblePlanetSnapshot
+    private Set<IEdge> iedges;
+    private IPlanet planetSnapshot;
+    private VisiblePlanetSnapshot[] visibleSnapshots = new VisiblePlanetSnapshot[InternalPlayer.values().length];
+
     private IPlanetLookup planetLookup;
 
     public Planet(int id, int habitability, long size, InternalPlayer owningPlayer, boolean isHomeworld, IPlanetLookup planetLookup) {
@@ -30,26 +38,46 @@ final class Planet {
         this.isHomeworld = isHomeworld;
 
         this.population = 0;
-        this.incomingShuttles = new ArrayList<>();
+        this.incomingShuttles = new LinkedHashSet<>();
+        this.arrivingShuttles = new ArrayList<>();
         this.edges = new HashSet<>();
         this.planetLookup = planetLookup;
     }
 
+    /**
+     * The snapshot of a non-visible planet never changes, so a single instance is shared by both players for the
+     * whole game.
+     */
     public IPlanet getPlanetSnapshot(InternalPlayer viewer) {
-        return new PlanetSnapshot(this.id, this.getIEdges());
+        if (this.planetSnapshot == null) {
+            this.planetSnapshot = new PlanetSnapshot(this.id, this.getIEdges());
+        }
+        return this.planetSnapshot;
     }
 
-    public IVisiblePlanet getVisiblePlanetSnapshot(InternalPlayer viewer) {
-        return new VisiblePlanetSnapshot(
+    /**
+     * Snapshots are immutable, so the previous one for this viewer is handed out again when nothing it shows has
+     * changed. Planets with shuttles incoming always get a new snapshot since the arrival times change every turn.
+     */
+    public IVisiblePlanet getVisiblePlanetSnapshot(InternalPlayer viewer, int currentTurn) {
+        Owner owner = this.getOwnerFromViewer(viewer);
+        VisiblePlanetSnapshot snapshot = this.visibleSnapshots[viewer.ordinal()];
+        if (snapshot != null && this.incomingShuttles.isEmpty() && snapshot.isUnchanged(this.population, owner)) {
+            return snapshot;
+        }
+
+        snapshot = new VisiblePlanetSnapshot(
                 this.id,
                 this.getIEdges(),
                 this.habitability,
                 this.size,
                 this.population,
-                this.getOwnerFromViewer(viewer),
+                owner,
                 this.isHomeworld,
-                this.getIncomingIShuttles(viewer)
+                this.getIncomingIShuttles(viewer, currentTurn)
         );
+        this.visibleSnapshots[viewer.ordinal()] = snapshot;
+        return snapshot;
     }
 
     public Owner getOwnerFromViewer(InternalPlayer viewer) {
@@ -68,10 +96,18 @@ final class Planet {
         return owningPlayer;
     }
 
+    /**
+     * @return A read-only view of the edges. Edges are fixed once the map is loaded, so the set is built once.
+     */
     public Set<IEdge> getIEdges() {
-        Set<IEdge> iedges = new HashSet<>(this.edges.size());
-        iedges.addAll(this.edges);
-        return iedges;
+        if (this.iedges == null) {
+            this.iedges = Collections.unmodifiableSet(new HashSet<IEdge>(this.edges));
+        }
+        return this.iedges;
+    }
+
+    public Set<Edge> getEdges() {
+        return this.edges;
     }
 
     public Set<Planet> getNeighboringPlanets() {
@@ -108,33 +144,47 @@ final class Planet {
         }
 
         // Check that an edge exists
-        Set<Edge> sourceEdges = planetLookup.lookupPlanet(shuttle.getSourcePlanetId()).edges;
-        boolean found = false;
-        for (Edge edge : sourceEdges) {
-            if (edge.getDestinationPlanetId() == shuttle.getDestinationPlanetId()) {
-                found = true;
-            }
-        }
-        if (!found) {
+        if (planetLookup.getDistance(shuttle.getSourcePlanetId(), shuttle.getDestinationPlanetId()) < 0) {
             return false;
         }
 
-        this.population -= shuttle.getNumberPeople();
+        this.departPeople(shuttle.getNumberPeople());
+        return true;
+    }
+
+    /**
+     * Takes away people who left on shuttles. A planet left empty becomes neutral.
+     */
+    public void departPeople(long numPeople) {
+        this.population -= numPeople;
         if (population == 0) {
             this.owningPlayer = InternalPlayer.NEUTRAL;
         }
-
-        return true;
     }
 
     public void addIncomingShuttle(Shuttle shuttle) {
         this.incomingShuttles.add(shuttle);
     }
 
-    public List<IShuttle> getIncomingIShuttles(InternalPlayer viewer) {
+    public boolean hasIncomingShuttles() {
+        return !this.incomingShuttles.isEmpty();
+    }
+
+    /**
+     * Marks an incoming shuttle as landing this turn; it is resolved by the next call to {@link #processShuttles()}.
+     */
+    public void addArrivingShuttle(Shuttle shuttle) {
+        this.arrivingShuttles.add(shuttle);
+    }
+
+    public List<IShuttle> getIncomingIShuttles(InternalPlayer viewer, int currentTurn) {
+        if (this.incomingShuttles.isEmpty()) {
+            return Collections.emptyList();
+        }
+
         List<IShuttle> incomingIShuttles = new ArrayList<>(this.incomingShuttles.size());
         for (Shuttle shuttle : this.incomingShuttles) {
-            incomingIShuttles.add(shuttle.getShuttleSnapshot(viewer));
+            incomingIShuttles.add(shuttle.getShuttleSnapshot(viewer, currentTurn));
         }
         return incomingIShuttles;
     }
@@ -142,12 +192,26 @@ final class Planet {
     public void addEdge(Planet neighbor, int distance) {
         this.edges.add(new Edge(this.id, neighbor.id, distance));
         neighbor.edges.add(new Edge(neighbor.id, this.id, distance));
+        this.iedges = null;
+        neighbor.iedges = null;
     }
 
     public int getId() {
         return id;
     }
 
+    public int getHabitability() {
+        return habitability;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public boolean isHomeworld() {
+        return isHomeworld;
+    }
+
     public long getPopulation() {
         return population;
     }
@@ -173,38 +237,32 @@ final class Planet {
         this.population = (long) Math.min(this.size, Math.ceil(this.population * populationScaleFactor));
     }
 
+    /**
+     * Lands the shuttles handed over through {@link #addArrivingShuttle(Shuttle)}, in launch order.
+     */
     public void processShuttles() {
-        List<Shuttle> friendlyShuttlesArrived = new ArrayList<>();
-        List<Shuttle> hostileShuttlesArrived = new ArrayList<>();
-
-        // Pull out the friendly and hostile shuttles
-        for (Shuttle shuttle : this.incomingShuttles) {
-            shuttle.moveCloser();
-            if (shuttle.getTurnsToArrival() == 0) {
-                if (shuttle.getOwningPlayer() == this.owningPlayer) {
-                    friendlyShuttlesArrived.add(shuttle);
-                } else {
-                    hostileShuttlesArrived.add(shuttle);
-                }
-            }
+        if (this.arrivingShuttles.isEmpty()) {
+            return;
         }
 
-        // Land all friendly shuttles
-        for (Shuttle shuttle : friendlyShuttlesArrived) {
+        // Land all friendly shuttles and total up the hostile ones
+        long attackingPopulation = 0;
+        InternalPlayer attackingPlayer = null;
+        for (Shuttle shuttle : this.arrivingShuttles) {
             if (shuttle.getOwningPlayer() == this.owningPlayer) {
                 this.population += shuttle.getNumberPeople();
-            }
-        }
-
-        // Calculate the strength of the incoming attack
-        if (hostileShuttlesArrived.size() > 0) {
-            long attackingPopulation = 0;
-            InternalPlayer attackingPlayer = hostileShuttlesArrived.get(0).getOwningPlayer();
-
-            for (Shuttle shuttle : hostileShuttlesArrived) {
+            } else {
+                if (attackingPlayer == null) {
+                    attackingPlayer = shuttle.getOwningPlayer();
+                }
                 attackingPopulation += shuttle.getNumberPeople();
             }
+            this.incomingShuttles.remove(shuttle);
+        }
+        this.arrivingShuttles.clear();
 
+        // Resolve the incoming attack
+        if (attackingPlayer != null) {
             long effectivePopulation = (long) (1.1 * this.population);
             if (effectivePopulation < attackingPopulation) {
                 this.owningPlayer = attackingPlayer;
@@ -218,8 +276,6 @@ final class Planet {
         }
 
         assert this.population >= 0;
-        this.incomingShuttles.removeAll(friendlyShuttlesArrived);
-        this.incomingShuttles.removeAll(hostileShuttlesArrived);
     }
 
     public void shrink() {
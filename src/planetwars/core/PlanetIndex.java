@@ -0,0 +1,74 @@
+package planetwars.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Maps planet ids onto dense indices {@code 0..size()-1}, ordered by id, so per-planet state can live in plain arrays.
+ * <p>
+ * Maps number their planets contiguously, so lookups normally go through a direct table; very sparse ids fall back to a
+ * binary search over the sorted ids.
+ */
+final class PlanetIndex {
+    private static final int MAX_TABLE_SLACK = 4;
+
+    private final int[] ids;
+    private final int[] table;
+    private final int minId;
+
+    public PlanetIndex(int[] ids) {
+        this.ids = ids.clone();
+        Arrays.sort(this.ids);
+
+        if (this.ids.length == 0) {
+            this.minId = 0;
+            this.table = new int[0];
+            return;
+        }
+
+        this.minId = this.ids[0];
+        long range = (long) this.ids[this.ids.length - 1] - this.minId + 1;
+        if (range <= (long) MAX_TABLE_SLACK * this.ids.length) {
+            this.table = new int[(int) range];
+            Arrays.fill(this.table, -1);
+            for (int i = 0; i < this.ids.length; i++) {
+                this.table[this.ids[i] - this.minId] = i;
+            }
+        } else {
+            this.table = null;
+        }
+    }
+
+    public static PlanetIndex of(Collection<Planet> planets) {
+        int[] ids = new int[planets.size()];
+        int i = 0;
+        for (Planet planet : planets) {
+            ids[i++] = planet.getId();
+        }
+        return new PlanetIndex(ids);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @return The dense index of the planet, or -1 if no planet has that id
+     */
+    public int indexOf(int id) {
+        if (this.table == null) {
+            int index = Arrays.binarySearch(this.ids, id);
+            return index >= 0 ? index : -1;
+        }
+
+        long offset = (long) id - this.minId;
+        if (offset < 0 || offset >= this.table.length) {
+            return -1;
+        }
+        return this.table[(int) offset];
+    }
+}
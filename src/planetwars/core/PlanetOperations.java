@@ -2,6 +2,8 @@ package planetwars.core;
 
 import planetwars.publicapi.*;
 
+import java.util.List;
+
 final class PlanetOperations implements IPlanetOperations {
     private IPlanetLookup planetLookup;
     private InternalPlayer player;
@@ -13,12 +15,26 @@ final class PlanetOperations implements IPlanetOperations {
 
     @Override
     public IEvent transferPeople(IPlanet from, IPlanet to, long numPeople) {
-        int distance = -1;
-        for (IEdge edge : from.getEdges()) {
-            if (edge.getDestinationPlanetId() == to.getId()) {
-                distance = edge.getLength();
-            }
-        }
+        int distance = this.planetLookup.getDistance(from.getId(), to.getId());
         return new Shuttle(from.getId(), to.getId(), this.player, numPeople, distance);
     }
+
+    @Override
+    public IEvent transferPeople(int[] sourcePlanetIds, int[] destinationPlanetIds, long[] numPeople) {
+        if (sourcePlanetIds.length != destinationPlanetIds.length || sourcePlanetIds.length != numPeople.length) {
+            throw new IllegalArgumentException("Transfer arrays must all have the same length");
+        }
+        return ShuttleBatch.of(this.planetLookup.getAdjacency(), this.player, sourcePlanetIds, destinationPlanetIds,
+                numPeople, sourcePlanetIds.length);
+    }
+
+    @Override
+    public ITransferBatch newTransferBatch() {
+        return new TransferBatch(this.planetLookup.getAdjacency(), this.player);
+    }
+
+    @Override
+    public IForwardModel createForwardModel(List<IPlanet> planets) {
+        return ForwardModel.fromSnapshot(this.planetLookup.getAdjacency(), this.player, planets);
+    }
 }
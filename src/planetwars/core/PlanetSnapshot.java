@@ -3,7 +3,6 @@ package planetwars.core;
 import planetwars.publicapi.IEdge;
 import planetwars.publicapi.IPlanet;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -27,6 +26,7 @@ final class PlanetSnapshot implements IPlanet {
 
     @Override
     public Set<IEdge> getEdges() {
-        return new HashSet<>(edges);
+        // Read-only and shared between snapshots of the same planet
+        return edges;
     }
 }
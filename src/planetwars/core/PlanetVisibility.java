@@ -0,0 +1,75 @@
+package planetwars.core;
+
+import java.util.BitSet;
+
+/**
+ * Tracks which planets each player can see: the planets they own plus every planet those are connected to.
+ * <p>
+ * Every planet keeps a per-player count of the owned planets that reveal it, so only ownership changes touch this
+ * class, and each change only touches the planet and its neighbors.
+ */
+final class PlanetVisibility {
+    /**
+     * Told whenever a planet becomes visible or hidden to a player.
+     */
+    interface Listener {
+        void visibilityChanged(InternalPlayer player, int index);
+    }
+
+    private final Adjacency adjacency;
+    private final int[][] references;
+    private final BitSet[] visible;
+    private Listener listener;
+
+    public PlanetVisibility(Adjacency adjacency) {
+        int planetCount = adjacency.getIndex().size();
+        this.adjacency = adjacency;
+        this.references = new int[InternalPlayer.values().length][planetCount];
+        this.visible = new BitSet[InternalPlayer.values().length];
+        for (int i = 0; i < this.visible.length; i++) {
+            this.visible[i] = new BitSet(planetCount);
+        }
+    }
+
+    public void ownerChanged(int index, InternalPlayer previousOwner, InternalPlayer newOwner) {
+        if (previousOwner != InternalPlayer.NEUTRAL) {
+            reveal(index, previousOwner, -1);
+        }
+        if (newOwner != InternalPlayer.NEUTRAL) {
+            reveal(index, newOwner, 1);
+        }
+    }
+
+    private void reveal(int index, InternalPlayer player, int delta) {
+        int[] references = this.references[player.ordinal()];
+        BitSet visible = this.visible[player.ordinal()];
+
+        this.count(player, references, visible, index, delta);
+        for (int edge = this.adjacency.getStart(index); edge < this.adjacency.getEnd(index); edge++) {
+            this.count(player, references, visible, this.adjacency.getTarget(edge), delta);
+        }
+    }
+
+    private void count(InternalPlayer player, int[] references, BitSet visible, int index, int delta) {
+        boolean wasVisible = references[index] > 0;
+        references[index] += delta;
+        boolean isVisible = references[index] > 0;
+        if (isVisible != wasVisible) {
+            visible.set(index, isVisible);
+            if (this.listener != null) {
+                this.listener.visibilityChanged(player, index);
+            }
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return The dense indices of the planets the player can see. Callers must not modify the set.
+     */
+    public BitSet getVisible(InternalPlayer player) {
+        return visible[player.ordinal()];
+    }
+}
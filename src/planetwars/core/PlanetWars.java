@@ -4,39 +4,136 @@ import planetwars.publicapi.*;
 import planetwars.strategies.RandomMoveStrategy;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 
 final class PlanetWars implements IPlanetLookup {
     private static final int MOVE_TIMEOUT = 1;
     private static final TimeUnit TIME_UNIT = TimeUnit.SECONDS;
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    private static final int MIN_EVENT_LIMIT = 1024;
+    private static final int EVENTS_PER_PLANET = 16;
 
     private Map<Integer, Planet> planetMap = new HashMap<>();
+    private PlanetIndex planetIndex;
+    private Adjacency adjacency;
+    private Planet[] planetsByIndex;
+    private PlanetVisibility visibility;
+    private InternalPlayer[] previousOwners;
+    private long[] previousPopulations;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private EventIngestion ingestion;
+    private int eventLimit;
+    private ShuttleScheduler shuttleScheduler = new ShuttleScheduler();
+    private int turn;
+
+    // Running totals per player, indexed by InternalPlayer ordinal, so the win check doesn't have to scan the map
+    private final int[] planetsOwned = new int[InternalPlayer.values().length];
+    private final int[] shuttlesInFlight = new int[InternalPlayer.values().length];
     private IStrategy player1;
     private IStrategy player2;
     private PlanetWarsFrame observer;
     private PlanetOperations player1Operations;
     private PlanetOperations player2Operations;
     private boolean player1Turn;
+    private boolean simultaneousTurns;
+
+    // Only kept for players with an IDeltaStrategy, from their first turn on; every change to a planet is reported to
+    // them, so they can keep their views up to date without rescanning the map
+    private DeltaTracker player1Tracker;
+    private DeltaTracker player2Tracker;
     private boolean gameOver;
 
-    private ExecutorService moveExecutor; // Handles timeouts
+    private final StrategyWorker player1Worker = new StrategyWorker("planetwars-player1");
+    private final StrategyWorker player2Worker = new StrategyWorker("planetwars-player2");
+    private TurnBudget turnBudget = TurnBudget.UNLIMITED;
     private InternalPlayer winner;
 
+    private final String graph;
+    private final long seed;
+    private final long player1Seed;
+    private final long player2Seed;
+    private ReplayWriter replay;
+
     public PlanetWars(IStrategy player1, IStrategy player2, String graph) throws FileNotFoundException {
-        this.player1 = player1;
-        this.player2 = player2;
+        this(player1, player2, graph, new Random().nextLong());
+    }
+
+    /**
+     * @param seed Match seed; each strategy is handed its own seed derived from it through {@link IStrategy#setSeed}
+     */
+    public PlanetWars(IStrategy player1, IStrategy player2, String graph, long seed) throws FileNotFoundException {
+        this.graph = graph;
+        this.seed = seed;
+        Random seeds = new Random(seed);
+        this.player1Seed = seeds.nextLong();
+        this.player2Seed = seeds.nextLong();
+
+        this.setPlayer1(player1);
+        this.setPlayer2(player2);
         this.player1Operations = new PlanetOperations(this, InternalPlayer.PLAYER1);
         this.player2Operations = new PlanetOperations(this, InternalPlayer.PLAYER2);
         this.player1Turn = true;
         this.gameOver = false;
 
-        this.moveExecutor = Executors.newSingleThreadExecutor();
         this.loadGraph(graph);
     }
 
     private void loadGraph(String graph) throws FileNotFoundException {
         this.planetMap = SystemLoader.load(graph, this);
+        this.planetIndex = PlanetIndex.of(this.planetMap.values());
+        this.adjacency = Adjacency.of(this.planetIndex, this.planetMap.values());
+
+        this.planetsByIndex = new Planet[this.planetIndex.size()];
+        for (Planet planet : this.planetMap.values()) {
+            this.planetsByIndex[this.planetIndex.indexOf(planet.getId())] = planet;
+        }
+
+        this.previousOwners = new InternalPlayer[this.planetsByIndex.length];
+        this.previousPopulations = new long[this.planetsByIndex.length];
+        this.ingestion = new EventIngestion(this.adjacency, this.planetsByIndex);
+        this.eventLimit = Math.max(MIN_EVENT_LIMIT, EVENTS_PER_PLANET * this.planetsByIndex.length);
+        this.visibility = new PlanetVisibility(this.adjacency);
+        for (Planet planet : this.planetsByIndex) {
+            this.planetsOwned[planet.getOwningPlayer().ordinal()]++;
+            this.visibility.ownerChanged(this.planetIndex.indexOf(planet.getId()), InternalPlayer.NEUTRAL, planet.getOwningPlayer());
+        }
+        this.visibility.setListener(new PlanetVisibility.Listener() {
+            @Override
+            public void visibilityChanged(InternalPlayer player, int index) {
+                DeltaTracker tracker = player == InternalPlayer.PLAYER1 ? player1Tracker : player2Tracker;
+                if (tracker != null) {
+                    tracker.planetChanged(index);
+                }
+            }
+        });
+    }
+
+    private void ownerChanged(Planet planet, InternalPlayer previousOwner) {
+        int index = this.planetIndex.indexOf(planet.getId());
+        this.planetsOwned[previousOwner.ordinal()]--;
+        this.planetsOwned[planet.getOwningPlayer().ordinal()]++;
+        this.visibility.ownerChanged(index, previousOwner, planet.getOwningPlayer());
+        this.planetChanged(index);
+    }
+
+    private boolean isTracking() {
+        return this.player1Tracker != null || this.player2Tracker != null;
+    }
+
+    /**
+     * Tells the delta trackers that something they show about a planet may have changed.
+     */
+    private void planetChanged(int index) {
+        if (this.player1Tracker != null) {
+            this.player1Tracker.planetChanged(index);
+        }
+        if (this.player2Tracker != null) {
+            this.player2Tracker.planetChanged(index);
+        }
     }
 
     public void gameTick() {
@@ -44,11 +141,50 @@ final class PlanetWars implements IPlanetLookup {
             return;
         }
 
+        // Hand this turn's arrivals to their destinations
+        this.turn++;
+        for (Shuttle shuttle : this.shuttleScheduler.takeArrivals(this.turn)) {
+            this.lookupPlanet(shuttle.getDestinationPlanetId()).addArrivingShuttle(shuttle);
+            this.shuttlesInFlight[shuttle.getOwningPlayer().ordinal()]--;
+            if (this.isTracking()) {
+                this.planetChanged(this.planetIndex.indexOf(shuttle.getDestinationPlanetId()));
+            }
+            if (this.player1Tracker != null) {
+                this.player1Tracker.shuttleLanded(shuttle);
+            }
+            if (this.player2Tracker != null) {
+                this.player2Tracker.shuttleLanded(shuttle);
+            }
+        }
+
         // Time passes on each planet
-        for (Planet planet : this.planetMap.values()) {
-            planet.grow();
-            planet.processShuttles();
-            planet.shrink();
+        if (this.planetsByIndex.length >= this.parallelThreshold) {
+            // Planets only touch their own state, so they can be split across threads; the shared counters and
+            // visibility are updated afterwards, in index order
+            ForkJoinPool.commonPool().invoke(new PlanetPhase(this.planetsByIndex, this.previousOwners, this.previousPopulations,
+                    0, this.planetsByIndex.length));
+            boolean tracking = this.isTracking();
+            for (int i = 0; i < this.planetsByIndex.length; i++) {
+                if (this.planetsByIndex[i].getOwningPlayer() != this.previousOwners[i]) {
+                    this.ownerChanged(this.planetsByIndex[i], this.previousOwners[i]);
+                } else if (tracking && this.planetsByIndex[i].getPopulation() != this.previousPopulations[i]) {
+                    this.planetChanged(i);
+                }
+            }
+        } else {
+            boolean tracking = this.isTracking();
+            for (Planet planet : this.planetMap.values()) {
+                InternalPlayer previousOwner = planet.getOwningPlayer();
+                long previousPopulation = planet.getPopulation();
+                planet.grow();
+                planet.processShuttles();
+                planet.shrink();
+                if (planet.getOwningPlayer() != previousOwner) {
+                    this.ownerChanged(planet, previousOwner);
+                } else if (tracking && planet.getPopulation() != previousPopulation) {
+                    this.planetChanged(this.planetIndex.indexOf(planet.getId()));
+                }
+            }
         }
 
         // Check for win conditions
@@ -57,73 +193,238 @@ final class PlanetWars implements IPlanetLookup {
             return;
         }
 
+        if (this.simultaneousTurns) {
+            this.takeSimultaneousTurns();
+            return;
+        }
+
         IStrategy player;
         InternalPlayer playerToken;
         IPlanetOperations operations;
+        StrategyWorker worker;
         if (this.player1Turn) {
             player = this.player1;
             playerToken = InternalPlayer.PLAYER1;
             operations = this.player1Operations;
+            worker = this.player1Worker;
         } else {
             player = this.player2;
             playerToken = InternalPlayer.PLAYER2;
             operations = this.player2Operations;
+            worker = this.player2Worker;
         }
 
-        Queue<IEvent> eventsToProcess = new ArrayDeque<>();
-        List<IPlanet> snapshot = getPlanetsSnapshot(playerToken);
+        // Let the player make their moves; only what they queued in time is processed
+        List<IPlanet> snapshot = this.getTurnSnapshot(player, playerToken);
+        IStrategy turnStrategy = this.prepareTurn(player, playerToken);
+        this.processEvents(playerToken, worker.takeTurn(turnStrategy, snapshot, operations, this.eventLimit, MOVE_TIMEOUT, TIME_UNIT, this.turnBudget));
 
-        // Let the player make their moves
-        Future<?> turn = moveExecutor.submit(new Runnable() {
-            @Override
-            public void run() {
-                player.takeTurn(snapshot, operations, eventsToProcess);
+        this.player1Turn = !this.player1Turn;
+    }
+
+    /**
+     * Both players see the same tick and think at the same time, each against the full time limit. Their moves are
+     * then applied one player after the other, with the first player alternating between turns. Players can only
+     * launch from their own planets, so one player's moves never decide whether the other's are accepted.
+     */
+    private void takeSimultaneousTurns() {
+        List<IPlanet> snapshot1 = this.getTurnSnapshot(this.player1, InternalPlayer.PLAYER1);
+        List<IPlanet> snapshot2 = this.getTurnSnapshot(this.player2, InternalPlayer.PLAYER2);
+
+        IStrategy strategy1 = this.prepareTurn(this.player1, InternalPlayer.PLAYER1);
+        IStrategy strategy2 = this.prepareTurn(this.player2, InternalPlayer.PLAYER2);
+
+        long deadline = System.nanoTime() + TIME_UNIT.toNanos(MOVE_TIMEOUT);
+        StrategyWorker.PendingTurn turn1 = this.player1Worker.startTurn(strategy1, snapshot1, this.player1Operations, this.eventLimit);
+        StrategyWorker.PendingTurn turn2 = this.player2Worker.startTurn(strategy2, snapshot2, this.player2Operations, this.eventLimit);
+        List<IEvent> events1 = this.player1Worker.finishTurn(turn1, deadline, this.turnBudget);
+        List<IEvent> events2 = this.player2Worker.finishTurn(turn2, deadline, this.turnBudget);
+
+        if (this.turn % 2 == 1) {
+            this.processEvents(InternalPlayer.PLAYER1, events1);
+            this.processEvents(InternalPlayer.PLAYER2, events2);
+        } else {
+            this.processEvents(InternalPlayer.PLAYER2, events2);
+            this.processEvents(InternalPlayer.PLAYER1, events1);
+        }
+    }
+
+    /**
+     * Validates a player's events in one pass, then applies the departures once per source planet and sends off the
+     * accepted shuttles in queue order.
+     */
+    private void processEvents(InternalPlayer player, List<IEvent> eventsToProcess) {
+        this.ingestion.ingest(player, eventsToProcess, this.turn, this.eventLimit, this.getTurnStats(player));
+
+        for (int i = 0; i < this.ingestion.getSourceCount(); i++) {
+            long departing = this.ingestion.getDeparting(i);
+            if (departing == 0) {
+                continue;
             }
-        });
-        try {
-            turn.get(MOVE_TIMEOUT, TIME_UNIT);
-        } catch (InterruptedException | TimeoutException e) {
-            // Turn skips, multiple catches in case we want to do something else
-            // due to timeouts
-        } catch (ExecutionException e) {
-            // welp, ok then
-        }
-
-        // Process the player's moves
-        for (IEvent event : eventsToProcess) {
-            if (event instanceof Shuttle) {
-                Shuttle shuttle = (Shuttle) event;
-                if (this.lookupPlanet(shuttle.getSourcePlanetId()).checkAndLaunchShuttle(shuttle)) {
-                    this.lookupPlanet(shuttle.getDestinationPlanetId()).addIncomingShuttle(shuttle);
-                    if (this.observer != null) {
-                        this.observer.notifyNewShuttle(shuttle);
-                    }
-                }
+            Planet source = this.ingestion.getSource(i);
+            InternalPlayer previousOwner = source.getOwningPlayer();
+            source.departPeople(departing);
+            if (source.getOwningPlayer() != previousOwner) {
+                this.ownerChanged(source, previousOwner);
+            } else {
+                this.planetChanged(this.ingestion.getSourceIndex(i));
             }
         }
 
-        this.player1Turn = !this.player1Turn;
+        boolean tracking = this.isTracking();
+        for (Shuttle shuttle : this.ingestion.getAccepted()) {
+            this.lookupPlanet(shuttle.getDestinationPlanetId()).addIncomingShuttle(shuttle);
+            if (tracking) {
+                this.planetChanged(this.planetIndex.indexOf(shuttle.getDestinationPlanetId()));
+            }
+            this.shuttleScheduler.schedule(shuttle);
+            this.shuttlesInFlight[shuttle.getOwningPlayer().ordinal()]++;
+            this.recordLaunch(shuttle);
+            if (this.player1Tracker != null) {
+                this.player1Tracker.shuttleLaunched(shuttle);
+            }
+            if (this.player2Tracker != null) {
+                this.player2Tracker.shuttleLaunched(shuttle);
+            }
+            if (this.observer != null) {
+                this.observer.notifyNewShuttle(shuttle);
+            }
+        }
     }
 
-    public boolean hasWon(InternalPlayer player) {
-        for (Planet planet : this.planetMap.values()) {
-            // If the other player owns a planet, the game is still going
-            if (planet.getOwnerFromViewer(player) == Owner.OPPONENT) {
-                return false;
+    /**
+     * Gets the planets to hand a strategy for its turn. A {@link IDeltaStrategy} gets its view from its tracker
+     * instead, so the map isn't snapshotted for it.
+     */
+    private List<IPlanet> getTurnSnapshot(IStrategy player, InternalPlayer playerToken) {
+        return player instanceof IDeltaStrategy ? Collections.<IPlanet>emptyList() : this.getPlanetsSnapshot(playerToken);
+    }
+
+    /**
+     * Gets the strategy to run for a turn. A {@link IDeltaStrategy} is wrapped so that it is handed its view and the
+     * changes since its previous turn, which are worked out here on the engine thread.
+     */
+    private IStrategy prepareTurn(IStrategy player, InternalPlayer playerToken) {
+        if (!(player instanceof IDeltaStrategy)) {
+            return player;
+        }
+
+        DeltaTracker tracker = playerToken == InternalPlayer.PLAYER1 ? this.player1Tracker : this.player2Tracker;
+        if (tracker == null) {
+            tracker = new DeltaTracker(playerToken, this.planetIndex, this.planetsByIndex, this.visibility);
+            if (playerToken == InternalPlayer.PLAYER1) {
+                this.player1Tracker = tracker;
+            } else {
+                this.player2Tracker = tracker;
             }
+        }
 
-            // It isn't over until the last shuttle says it's over
-            for (IShuttle shuttle : planet.getIncomingIShuttles(player)) {
-                if (shuttle.getOwner() == Owner.OPPONENT) {
-                    return false;
-                }
+        final IDeltaStrategy strategy = (IDeltaStrategy) player;
+        final ITurnDelta delta = tracker.update(this.turn);
+        final IGameView view = tracker.getView();
+        return new IStrategy() {
+            @Override
+            public void takeTurn(List<IPlanet> planets, IPlanetOperations planetOperations, Queue<IEvent> eventsToExecute) {
+                strategy.takeTurn(view, delta, planetOperations, eventsToExecute);
+            }
+
+            @Override
+            public String getName() {
+                return strategy.getName();
+            }
+
+            @Override
+            public boolean compete() {
+                return strategy.compete();
+            }
+        };
+    }
+
+    /**
+     * Runs the planet phase of a tick over a range of planets, splitting it until the pieces are small enough.
+     */
+    private static final class PlanetPhase extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int CHUNK_SIZE = 1024;
+
+        private final Planet[] planets;
+        private final InternalPlayer[] previousOwners;
+        private final long[] previousPopulations;
+        private final int start;
+        private final int end;
+
+        PlanetPhase(Planet[] planets, InternalPlayer[] previousOwners, long[] previousPopulations, int start, int end) {
+            this.planets = planets;
+            this.previousOwners = previousOwners;
+            this.previousPopulations = previousPopulations;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.end - this.start > CHUNK_SIZE) {
+                int middle = (this.start + this.end) >>> 1;
+                invokeAll(new PlanetPhase(this.planets, this.previousOwners, this.previousPopulations, this.start, middle),
+                        new PlanetPhase(this.planets, this.previousOwners, this.previousPopulations, middle, this.end));
+                return;
+            }
+
+            for (int i = this.start; i < this.end; i++) {
+                Planet planet = this.planets[i];
+                this.previousOwners[i] = planet.getOwningPlayer();
+                this.previousPopulations[i] = planet.getPopulation();
+                planet.grow();
+                planet.processShuttles();
+                planet.shrink();
             }
         }
-        this.moveExecutor.shutdownNow();
+    }
+
+    public boolean hasWon(InternalPlayer player) {
+        // It isn't over while the other player owns a planet or until their last shuttle lands
+        InternalPlayer opponent = player == InternalPlayer.PLAYER1 ? InternalPlayer.PLAYER2 : InternalPlayer.PLAYER1;
+        if (this.planetsOwned[opponent.ordinal()] > 0 || this.shuttlesInFlight[opponent.ordinal()] > 0) {
+            return false;
+        }
+        this.shutdownWorkers();
         winner = player;
+        this.finishReplay(player);
         return true;
     }
 
+    /**
+     * Records every accepted launch from now on. The replay is finished when the game ends or is shut down.
+     */
+    public void setReplayWriter(ReplayWriter replay) {
+        this.replay = replay;
+    }
+
+    private void recordLaunch(Shuttle shuttle) {
+        if (this.replay == null) {
+            return;
+        }
+        try {
+            this.replay.recordLaunch(this.turn, shuttle);
+        } catch (IOException e) {
+            // A broken replay shouldn't end the game; stop recording instead
+            e.printStackTrace();
+            this.replay = null;
+        }
+    }
+
+    private void finishReplay(InternalPlayer winner) {
+        if (this.replay == null) {
+            return;
+        }
+        try {
+            this.replay.finish(this.turn, winner);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.replay = null;
+    }
+
     public boolean isOver() {
         return gameOver;
     }
@@ -132,6 +433,76 @@ final class PlanetWars implements IPlanetLookup {
         return gameOver ? winner : InternalPlayer.NEUTRAL;
     }
 
+    /**
+     * Stops the strategy workers and finishes the replay. Needed when a game is abandoned before anyone wins.
+     */
+    public void shutdown() {
+        this.shutdownWorkers();
+        this.finishReplay(this.getWinner());
+    }
+
+    private void shutdownWorkers() {
+        this.player1Worker.shutdown();
+        this.player2Worker.shutdown();
+    }
+
+    /**
+     * @return What the given player's turns have cost so far
+     */
+    public TurnStats getTurnStats(InternalPlayer player) {
+        return player == InternalPlayer.PLAYER1 ? this.player1Worker.getStats() : this.player2Worker.getStats();
+    }
+
+    /**
+     * In simultaneous mode both players move every tick, from snapshots of the same tick, instead of taking turns.
+     */
+    public void setSimultaneousTurns(boolean simultaneousTurns) {
+        this.simultaneousTurns = simultaneousTurns;
+    }
+
+    public boolean isSimultaneousTurns() {
+        return simultaneousTurns;
+    }
+
+    /**
+     * Sets the most events a player can queue in one turn, which also limits the transfers in batches; the rest are
+     * refused. Defaults to
+     * {@value #EVENTS_PER_PLANET} per planet, and at least {@value #MIN_EVENT_LIMIT}.
+     */
+    public void setEventLimit(int eventLimit) {
+        this.eventLimit = eventLimit;
+    }
+
+    /**
+     * Sets the number of planets from which the planet phase of a tick is spread over the common fork-join pool.
+     * Results are the same either way; use {@link Integer#MAX_VALUE} to always run it on the calling thread.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Limits applied to every turn of both players from now on.
+     */
+    public void setTurnBudget(TurnBudget turnBudget) {
+        this.turnBudget = turnBudget;
+    }
+
+    public String getGraph() {
+        return graph;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The number of turns played so far
+     */
+    public int getTurn() {
+        return turn;
+    }
+
     @Override
     public Planet lookupPlanet(int id) {
         return planetMap.getOrDefault(id, null);
@@ -142,36 +513,28 @@ final class PlanetWars implements IPlanetLookup {
         return this.planetMap.values();
     }
 
-    public List<IPlanet> getPlanetsSnapshot(InternalPlayer viewer) {
-        // Record which planets are visible
-        HashMap<Integer, Planet> visiblePlanets = new HashMap<>();
-        for (Planet planet : this.planetMap.values()) {
-            Owner owner = planet.getOwnerFromViewer(viewer);
-            if (owner == Owner.SELF) {
-                visiblePlanets.put(planet.getId(), planet);
-                for (IEdge edge : planet.getIEdges()) {
-                    visiblePlanets.put(edge.getDestinationPlanetId(), this.lookupPlanet(edge.getDestinationPlanetId()));
-                }
-            }
-        }
+    @Override
+    public int getDistance(int sourcePlanetId, int destinationPlanetId) {
+        return this.adjacency.getDistance(sourcePlanetId, destinationPlanetId);
+    }
 
-        // The remaining planets are not visible
-        HashMap<Integer, Planet> nonvisiblePlanets = new HashMap<>();
-        for (Planet planet : this.planetMap.values()) {
-            if (!visiblePlanets.containsKey(planet.getId())) {
-                nonvisiblePlanets.put(planet.getId(), planet);
-            }
-        }
+    @Override
+    public Adjacency getAdjacency() {
+        return adjacency;
+    }
+
+    public List<IPlanet> getPlanetsSnapshot(InternalPlayer viewer) {
+        BitSet visible = this.visibility.getVisible(viewer);
+        List<IPlanet> snapshots = new ArrayList<>(this.planetsByIndex.length);
 
         // Add VisiblePlanetSnapshots for visible planets
-        List<IPlanet> snapshots = new ArrayList<>();
-        for (Planet planet : visiblePlanets.values()) {
-            snapshots.add(planet.getVisiblePlanetSnapshot(viewer));
+        for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+            snapshots.add(this.planetsByIndex[i].getVisiblePlanetSnapshot(viewer, this.turn));
         }
 
         // Add PlanetSnapshots for other planets
-        for (Planet planet : nonvisiblePlanets.values()) {
-            snapshots.add(planet.getPlanetSnapshot(viewer));
+        for (int i = visible.nextClearBit(0); i < this.planetsByIndex.length; i = visible.nextClearBit(i + 1)) {
+            snapshots.add(this.planetsByIndex[i].getPlanetSnapshot(viewer));
         }
 
         return snapshots;
@@ -184,10 +547,18 @@ final class PlanetWars implements IPlanetLookup {
 
     public void setPlayer1(IStrategy player) {
         this.player1 = player;
+        this.player1Tracker = null;
+        if (player != null) {
+            player.setSeed(this.player1Seed);
+        }
     }
 
     public void setPlayer2(IStrategy player) {
         this.player2 = player;
+        this.player2Tracker = null;
+        if (player != null) {
+            player.setSeed(this.player2Seed);
+        }
     }
 
     public void setObserver(PlanetWarsFrame observer) {
@@ -200,12 +571,14 @@ final class PlanetWars implements IPlanetLookup {
         PlanetWars planetWars = new PlanetWars(strategy1, strategy2, "rings");
 
         int rounds = 0;
-        while (!planetWars.hasWon(InternalPlayer.PLAYER1) && !planetWars.hasWon(InternalPlayer.PLAYER2)) {
+        while (!planetWars.isOver()) {
             planetWars.gameTick();
             rounds++;
         }
 
-        String winner = planetWars.hasWon(InternalPlayer.PLAYER1) ? "Player One" : "Player Two";
-        System.out.print(String.format("%s has won in %d rounds!", winner, rounds));
+        String winner = planetWars.getWinner() == InternalPlayer.PLAYER1 ? "Player One" : "Player Two";
+        System.out.println(String.format("%s has won in %d rounds!", winner, rounds));
+        System.out.println(String.format("Player One: %s", planetWars.getTurnStats(InternalPlayer.PLAYER1)));
+        System.out.print(String.format("Player Two: %s", planetWars.getTurnStats(InternalPlayer.PLAYER2)));
     }
 }
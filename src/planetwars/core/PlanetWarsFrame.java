@@ -3,9 +3,10 @@ package planetwars.core;
 import planetwars.publicapi.IStrategy;
 
 import java.awt.*;
-import java.io.IOException;
+import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static planetwars.core.InternalPlayer.PLAYER1;
 
@@ -14,6 +15,7 @@ final class PlanetWarsFrame extends AnimationFrame {
     static final int PLANET_RADIUS = 40;
     static final int FRAMES_PER_TURN = 30;
     static final int EDGE_POINT_SPACING = 10;
+    private static final double STAR_SPEED = 0.3;
 
     private final int NUM_MOBILE_STARS = 50;
     private final int NUM_STATIC_STARS = 200;
@@ -26,7 +28,29 @@ final class PlanetWarsFrame extends AnimationFrame {
     private List<Point2D> stationaryStars;
     private List<Point2D> mobileStars;
 
-    private int frameCount = 0;
+    private RenderCache renderCache;
+
+    // The game runs on its own thread, a turn every FRAMES_PER_TURN frames, and hands the renderer a copy of what it
+    // needs after each turn; the renderer never reads the game's planets while a turn may be changing them
+    private final TripleBuffer<RenderState> states;
+    private final Queue<Runnable> simulationTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<Shuttle> launches = new ConcurrentLinkedQueue<>();
+    private final Object simulationLock = new Object();
+    private Thread simulation;
+    private boolean simulationPaused = true;
+    private boolean simulationCancelled;
+
+    // The frame is drawn in layers: edges and stationary stars never change, the mobile stars all scroll together, and
+    // a planet only changes when its owner or population does
+    private Image background;
+    private Image starLayer;
+    private double starScroll;
+    private BufferedImage planetLayer;
+    private final Planet[] drawOrder;
+    private final int[][] drawOrderGrid;
+    private final InternalPlayer[] drawnOwners;
+    private final long[] drawnPopulations;
+    private final Rectangle[] drawnBounds;
 
     public PlanetWarsFrame(int w, int h, String name, PlanetWars planetWars) {
         super(w, h, name);
@@ -72,35 +96,155 @@ final class PlanetWarsFrame extends AnimationFrame {
 
         stationaryStars = this.generateStars(NUM_MOBILE_STARS);
         mobileStars = this.generateStars(NUM_STATIC_STARS);
+
+        this.drawOrder = planetWars.getPlanets().toArray(new Planet[0]);
+        this.drawOrderGrid = new int[this.planetGrid.length][this.planetGrid.length == 0 ? 0 : this.planetGrid[0].length];
+        for (int[] row : this.drawOrderGrid) {
+            Arrays.fill(row, -1);
+        }
+        for (int i = 0; i < this.drawOrder.length; i++) {
+            this.drawOrderGrid[this.getRow(this.drawOrder[i])][this.getColumn(this.drawOrder[i])] = i;
+        }
+        this.drawnOwners = new InternalPlayer[this.drawOrder.length];
+        this.drawnPopulations = new long[this.drawOrder.length];
+        this.drawnBounds = new Rectangle[this.drawOrder.length];
+
+        this.states = new TripleBuffer<>(new RenderState(this.drawOrder.length),
+                new RenderState(this.drawOrder.length), new RenderState(this.drawOrder.length));
+        this.captureState();
     }
 
     @Override
-    public void action() {
-        frameCount = (frameCount + 1) % FRAMES_PER_TURN;
-        if (frameCount == 0) {
-            planetWars.gameTick();
+    public void start() {
+        super.start();
+        synchronized (this.simulationLock) {
+            this.simulationPaused = false;
+            if (this.simulation == null && !this.simulationCancelled) {
+                this.simulation = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        simulate();
+                    }
+                }, "PlanetWars simulation");
+                this.simulation.setDaemon(true);
+                this.simulation.start();
+            }
+            this.simulationLock.notifyAll();
         }
+    }
 
-        moveStars();
+    @Override
+    public void pause() {
+        super.pause();
+        synchronized (this.simulationLock) {
+            this.simulationPaused = true;
+            this.simulationLock.notifyAll();
+        }
     }
 
+    /**
+     * Stops the game for good, including its strategy threads. If the simulation is in the middle of a turn it shuts
+     * the game down itself once the turn is over, so the game is never shut down under it.
+     */
     @Override
-    public void draw(Graphics g) {
-        g.setColor(Color.BLACK);
-        g.fillRect(0, 0, getWidth(), getHeight());
+    public void cancel() {
+        super.cancel();
+        boolean simulating;
+        synchronized (this.simulationLock) {
+            this.simulationCancelled = true;
+            simulating = this.simulation != null;
+            this.simulationLock.notifyAll();
+        }
+        if (!simulating) {
+            this.planetWars.shutdown();
+        }
+    }
 
-        // Draw edge paths, stars before planets so the planets are on top
-        this.drawEdgePaths(g);
-        this.drawStars(g);
+    /**
+     * Plays a turn every FRAMES_PER_TURN frames at the current frame rate, publishing the state after each one, until
+     * the game is over or the frame is cancelled. Pausing stops the clock, so a resumed game waits a full turn.
+     */
+    private void simulate() {
+        try {
+            this.runSimulation();
+        } finally {
+            this.planetWars.shutdown();
+        }
+    }
 
-        this.drawPlanets(g);
+    private void runSimulation() {
+        long nextTick = System.currentTimeMillis();
+        while (true) {
+            synchronized (this.simulationLock) {
+                try {
+                    if (this.simulationPaused) {
+                        while (this.simulationPaused && !this.simulationCancelled) {
+                            this.simulationLock.wait();
+                        }
+                        nextTick = System.currentTimeMillis();
+                        // Publish the same turn again, so that the shuttles pick up from where they stopped
+                        this.captureState();
+                    }
+                    nextTick += FRAMES_PER_TURN * 1000L / this.getFPS();
+                    long delay;
+                    while (!this.simulationPaused && !this.simulationCancelled
+                            && (delay = nextTick - System.currentTimeMillis()) > 0) {
+                        this.simulationLock.wait(delay);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (this.simulationCancelled) {
+                    return;
+                }
+                if (this.simulationPaused) {
+                    continue;
+                }
+            }
+
+            Runnable task;
+            while ((task = this.simulationTasks.poll()) != null) {
+                task.run();
+            }
+            this.planetWars.gameTick();
+            this.captureState();
+            if (this.planetWars.isOver()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hands the game as it is now to the next frame drawn. Called on the thread that plays the game.
+     */
+    void captureState() {
+        this.states.getBack().capture(this.planetWars, this.drawOrder);
+        this.states.publish();
+    }
+
+    /**
+     * Throws the cached layers away, so that the next frame is drawn from scratch. Called on the thread that draws.
+     */
+    void invalidateLayers() {
+        this.planetLayer = null;
+    }
+
+    @Override
+    public void action() {
+        moveStars();
+    }
+
+    @Override
+    public void draw(Graphics g) {
+        RenderState state = this.states.getFront();
+        this.drawLayers(g, state);
 
         // Draw moves last so they're always visible
-        this.drawMoves(g);
+        this.drawMoves(g, state);
 
 
-        if (planetWars.isOver()) {
-            InternalPlayer winner = planetWars.getWinner();
+        if (state.isOver()) {
+            InternalPlayer winner = state.getWinner();
             Color color;
             String winnerText;
             switch (winner) {
@@ -117,11 +261,31 @@ final class PlanetWarsFrame extends AnimationFrame {
                     winnerText = "INVALID STATE";
             }
             g.setColor(color);
-            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 64));
+            g.setFont(RenderCache.BANNER_FONT);
             g.drawString(winnerText, 250, 450);
         }
     }
 
+    /**
+     * Draws what is kept in layers, everything but the shuttles in flight and the banner, as the game is now. The
+     * shuttles are left out because where they are depends on the clock.
+     */
+    void drawLayers(Graphics g) {
+        this.drawLayers(g, this.states.getFront());
+    }
+
+    private void drawLayers(Graphics g, RenderState state) {
+        this.prepareLayers();
+        this.updatePlanetLayer(state);
+
+        // Edge paths and stars go under the planets
+        g.drawImage(this.background, 0, 0, null);
+        int scroll = (int) this.starScroll;
+        g.drawImage(this.starLayer, scroll, 0, null);
+        g.drawImage(this.starLayer, scroll - GameWindow.PLANET_WARS_WIDTH, 0, null);
+        g.drawImage(this.planetLayer, 0, 0, null);
+    }
+
     private int getX(Planet planet) {
         return (int) ((planet.getLocation().getX()));
     }
@@ -130,41 +294,137 @@ final class PlanetWarsFrame extends AnimationFrame {
         return (int) ((planet.getLocation().getY()));
     }
 
-    private void drawPlanets(Graphics g) {
-        for (Planet planet : planetWars.getPlanets()) {
-            InternalPlayer owner = planet.getOwningPlayer();
-            Image img;
-
-            try {
-                if (owner == PLAYER1) {
-                    img = Assets.loadPlanet(PLAYER1);
-                } else if (owner == InternalPlayer.PLAYER2) {
-                    img = Assets.loadPlanet(InternalPlayer.PLAYER2);
-                } else {
-                    img = Assets.loadPlanet(InternalPlayer.NEUTRAL);
+    private int getRow(Planet planet) {
+        return getY(planet) / BUCKET_WIDTH;
+    }
+
+    private int getColumn(Planet planet) {
+        return getX(planet) / BUCKET_WIDTH;
+    }
+
+    /**
+     * Renders the background and star layers, and starts the planet layer over, the first time the frame is drawn and
+     * whenever its size changes.
+     */
+    private void prepareLayers() {
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (this.planetLayer != null && this.planetLayer.getWidth() == width && this.planetLayer.getHeight() == height) {
+            return;
+        }
+
+        GraphicsConfiguration configuration = this.getGraphicsConfiguration();
+        BufferedImage background = RenderCache.createImage(configuration, width, height, Transparency.OPAQUE);
+        Graphics backgroundGraphics = background.getGraphics();
+        backgroundGraphics.setColor(Color.BLACK);
+        backgroundGraphics.fillRect(0, 0, width, height);
+        this.drawEdgePaths(backgroundGraphics);
+        this.drawStars(backgroundGraphics, this.stationaryStars);
+        backgroundGraphics.dispose();
+        this.background = background;
+
+        BufferedImage starLayer = RenderCache.createImage(configuration, GameWindow.PLANET_WARS_WIDTH, GameWindow.PLANET_WARS_HEIGHT, Transparency.TRANSLUCENT);
+        Graphics starGraphics = starLayer.getGraphics();
+        this.drawStars(starGraphics, this.mobileStars);
+        starGraphics.dispose();
+        this.starLayer = starLayer;
+
+        this.planetLayer = RenderCache.createImage(configuration, width, height, Transparency.TRANSLUCENT);
+        Arrays.fill(this.drawnOwners, null);
+    }
+
+    /**
+     * Redraws the planets whose owner or population changed since they were last drawn. The area a planet covered and
+     * now covers is cleared and everything in it drawn again, in the usual order, so that overlapping neighbors stay
+     * whole; planets only ever overlap the planets in the buckets around them.
+     */
+    private void updatePlanetLayer(RenderState state) {
+        RenderCache cache = this.getRenderCache();
+        Graphics2D g = null;
+        int[] candidates = new int[9];
+        for (int i = 0; i < this.drawOrder.length; i++) {
+            Planet planet = this.drawOrder[i];
+            if (state.getOwner(i) == this.drawnOwners[i] && state.getPopulation(i) == this.drawnPopulations[i]) {
+                continue;
+            }
+            if (g == null) {
+                g = this.planetLayer.createGraphics();
+            }
+
+            Rectangle bounds = this.getPlanetBounds(cache, state, i);
+            Rectangle dirty = new Rectangle(bounds);
+            if (this.drawnBounds[i] != null) {
+                dirty.add(this.drawnBounds[i]);
+            }
+            g.setClip(dirty);
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(dirty.x, dirty.y, dirty.width, dirty.height);
+            g.setComposite(AlphaComposite.SrcOver);
+
+            int count = 0;
+            int row = this.getRow(planet);
+            int column = this.getColumn(planet);
+            for (int r = Math.max(0, row - 1); r <= Math.min(this.drawOrderGrid.length - 1, row + 1); r++) {
+                for (int c = Math.max(0, column - 1); c <= Math.min(this.drawOrderGrid[r].length - 1, column + 1); c++) {
+                    if (this.drawOrderGrid[r][c] >= 0) {
+                        candidates[count++] = this.drawOrderGrid[r][c];
+                    }
                 }
-                g.drawImage(img, getX(planet) - PLANET_RADIUS, getY(planet) - PLANET_RADIUS, null);
-
-                FontMetrics fm = g.getFontMetrics();
-
-                // h4x
-                String id = String.valueOf(planet.getId());
-                String population = String.valueOf(planet.getPopulation());
-                String[] details = {id, population};
-
-                int multiplier = 1;
-                for (String detail : details) {
-                    double textWidth = fm.getStringBounds(detail, g).getWidth();
-                    g.setColor(Color.WHITE);
-                    g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 12));
-                    g.drawString(detail, (int) (getX(planet) - textWidth / 2),
-                            getY(planet) + fm.getMaxAdvance() / (multiplier));
-                    multiplier *= 2;
+            }
+            Arrays.sort(candidates, 0, count);
+            for (int k = 0; k < count; k++) {
+                if (candidates[k] == i || this.getPlanetBounds(cache, state, candidates[k]).intersects(dirty)) {
+                    this.drawPlanet(g, cache, state, candidates[k]);
                 }
-            } catch (IOException e) {
-
             }
+
+            this.drawnOwners[i] = state.getOwner(i);
+            this.drawnPopulations[i] = state.getPopulation(i);
+            this.drawnBounds[i] = bounds;
+        }
+        if (g != null) {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Draws the planet at the given place in the drawing order as it is in the given state.
+     */
+    private void drawPlanet(Graphics g, RenderCache cache, RenderState state, int i) {
+        Planet planet = this.drawOrder[i];
+        long population = state.getPopulation(i);
+        int x = getX(planet);
+        int y = getY(planet);
+        if (!cache.drawPlanet(g, state.getOwner(i), x - PLANET_RADIUS, y - PLANET_RADIUS)) {
+            return;
+        }
+
+        // The id goes below the center and the population above it
+        int maxAdvance = cache.getMaxAdvance();
+        cache.drawNumber(g, planet.getId(), (int) (x - cache.getWidth(planet.getId()) / 2.0), y + maxAdvance);
+        cache.drawNumber(g, population, (int) (x - cache.getWidth(population) / 2.0), y + maxAdvance / 2);
+    }
+
+    private Rectangle getPlanetBounds(RenderCache cache, RenderState state, int i) {
+        Planet planet = this.drawOrder[i];
+        long population = state.getPopulation(i);
+        int x = getX(planet);
+        int y = getY(planet);
+        int maxAdvance = cache.getMaxAdvance();
+        Rectangle bounds = cache.getPlanetBounds(state.getOwner(i), x - PLANET_RADIUS, y - PLANET_RADIUS);
+        bounds.add(cache.getNumberBounds(planet.getId(), (int) (x - cache.getWidth(planet.getId()) / 2.0), y + maxAdvance));
+        bounds.add(cache.getNumberBounds(population, (int) (x - cache.getWidth(population) / 2.0), y + maxAdvance / 2));
+        return bounds;
+    }
+
+    /**
+     * The cache is made on first use, when the frame knows which screen it is on.
+     */
+    private RenderCache getRenderCache() {
+        if (this.renderCache == null) {
+            this.renderCache = new RenderCache(this.getGraphicsConfiguration());
         }
+        return this.renderCache;
     }
 
     private void drawEdgePaths(Graphics g) {
@@ -184,23 +444,39 @@ final class PlanetWarsFrame extends AnimationFrame {
         }
     }
 
-    private void drawStars(Graphics g) {
-        for (Point2D star : stationaryStars) {
-            g.setColor(Color.WHITE);
+    private void drawStars(Graphics g, List<Point2D> stars) {
+        g.setColor(Color.WHITE);
+        for (Point2D star : stars) {
             g.fillOval((int) star.getX(), (int) star.getY(), 2, 2);
         }
+    }
 
-        for (Point2D star : mobileStars) {
-            g.setColor(Color.WHITE);
-            g.fillOval((int) star.getX(), (int) star.getY(), 2, 2);
+    /**
+     * Draws the shuttles where they are at this moment of the given state's turn, going by how much of the time between
+     * turns has passed since it was captured. Shuttles launched on a turn that hasn't been published yet wait until it
+     * is, and shuttles are dropped once a state shows them landed, so they always agree with the planets drawn.
+     */
+    private void drawMoves(Graphics g, RenderState state) {
+        Shuttle shuttle;
+        while ((shuttle = this.launches.poll()) != null) {
+            Planet src = this.planetWars.lookupPlanet(shuttle.getSourcePlanetId());
+            Planet dest = this.planetWars.lookupPlanet(shuttle.getDestinationPlanetId());
+            this.moves.add(new Move(src, dest, shuttle, shuttle.getFlightTime() * FRAMES_PER_TURN, this.pathFinder));
         }
-    }
 
-    private void drawMoves(Graphics g) {
+        double turnLength = FRAMES_PER_TURN * 1e9 / this.getFPS();
+        double turn = state.getTurn() + Math.min(1.0, Math.max(0.0, (System.nanoTime() - state.getCapturedAt()) / turnLength));
         Iterator<Move> it = moves.iterator();
         while (it.hasNext()) {
             Move move = it.next();
-            Point2D pos = move.nextPos();
+            if (move.hasReached(state.getTurn())) {
+                it.remove();
+                continue;
+            }
+            Point2D pos = move.getPosition(turn);
+            if (pos == null) {
+                continue;
+            }
             InternalPlayer player = move.getMoveMaker();
             Color color;
             if (player == PLAYER1) {
@@ -208,35 +484,26 @@ final class PlanetWarsFrame extends AnimationFrame {
             } else {
                 color = Color.BLUE;
             }
-            FontMetrics fm = g.getFontMetrics();
-            String numPeople = String.valueOf(move.getNumPeople());
-            double textWidth = fm.getStringBounds(numPeople, g).getWidth();
+            RenderCache cache = this.getRenderCache();
+            double textWidth = cache.getWidth(move.getNumPeople());
 
             double moveRadius = textWidth + 10;
 
             g.setColor(color);
-            assert pos != null;
             g.fillOval((int) (pos.getX() - moveRadius / 2), (int) (pos.getY() - moveRadius / 2), (int) moveRadius, (int) moveRadius);
             g.setColor(Color.WHITE);
             g.drawOval((int) (pos.getX() - moveRadius / 2), (int) (pos.getY() - moveRadius / 2), (int) moveRadius, (int) moveRadius);
 
-            g.setColor(Color.WHITE);
-            g.drawString(numPeople, (int) (pos.getX() - textWidth / 2),
-                    (int) pos.getY() + fm.getMaxAdvance() / 4);
-
-            if (move.hasReached()) {
-                it.remove();
-            }
+            cache.drawNumber(g, move.getNumPeople(), (int) (pos.getX() - textWidth / 2),
+                    (int) pos.getY() + cache.getMaxAdvance() / 4);
         }
     }
 
     private void moveStars() {
-        for (Point2D mobileStar : mobileStars) {
-            double newX = mobileStar.getX() + 0.3;
-            if (newX >= GameWindow.PLANET_WARS_WIDTH) {
-                newX -= GameWindow.PLANET_WARS_WIDTH;
-            }
-            mobileStar.setPos(newX, mobileStar.getY());
+        // The mobile stars all move together, so the star layer is scrolled instead of moving each of them
+        this.starScroll += STAR_SPEED;
+        if (this.starScroll >= GameWindow.PLANET_WARS_WIDTH) {
+            this.starScroll -= GameWindow.PLANET_WARS_WIDTH;
         }
     }
 
@@ -250,18 +517,31 @@ final class PlanetWarsFrame extends AnimationFrame {
         return stars;
     }
 
+    /**
+     * Called on the simulation thread; the renderer picks the shuttle up the next time it draws.
+     */
     public void notifyNewShuttle(Shuttle shuttle) {
-        Planet src = this.planetWars.lookupPlanet(shuttle.getSourcePlanetId());
-        Planet dest = this.planetWars.lookupPlanet(shuttle.getDestinationPlanetId());
-        Move move = new Move(src, dest, shuttle, shuttle.getTurnsToArrival() * FRAMES_PER_TURN, this.pathFinder);
-        this.moves.add(move);
+        this.launches.add(shuttle);
     }
 
-    public void setPlayer1(IStrategy player) {
-        this.planetWars.setPlayer1(player);
+    /**
+     * The new player takes over before the next turn, on the simulation thread.
+     */
+    public void setPlayer1(final IStrategy player) {
+        this.simulationTasks.add(new Runnable() {
+            @Override
+            public void run() {
+                planetWars.setPlayer1(player);
+            }
+        });
     }
 
-    public void setPlayer2(IStrategy player) {
-        this.planetWars.setPlayer2(player);
+    public void setPlayer2(final IStrategy player) {
+        this.simulationTasks.add(new Runnable() {
+            @Override
+            public void run() {
+                planetWars.setPlayer2(player);
+            }
+        });
     }
 }
@@ -0,0 +1,169 @@
+package planetwars.core;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * What {@link PlanetWarsFrame} draws every frame that can be prepared once.
+ * <p>
+ * The planet sprites are copied into one atlas image, in a format the screen can draw without converting it, with a
+ * cell per owner. Numbers are drawn from digits rendered once in the label font, so labels need neither a font lookup
+ * nor text layout per frame, and their widths are sums of cached advances.
+ */
+final class RenderCache {
+    static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 12);
+    static final Font BANNER_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 64);
+
+    private static final String GLYPHS = "0123456789-";
+
+    private final Image atlas;
+    // Where each owner's sprite is in the atlas; a width of 0 if it couldn't be loaded
+    private final int[] spriteX = new int[InternalPlayer.values().length];
+    private final int[] spriteWidth = new int[InternalPlayer.values().length];
+    private final int[] spriteHeight = new int[InternalPlayer.values().length];
+
+    private final Image[] glyphs = new Image[GLYPHS.length()];
+    private final int[] glyphAdvances = new int[GLYPHS.length()];
+    private final int ascent;
+    private final int maxAdvance;
+
+    /**
+     * @param configuration The screen the images will be drawn to, or null to use plain ARGB images
+     */
+    public RenderCache(GraphicsConfiguration configuration) {
+        BufferedImage[] sprites = new BufferedImage[InternalPlayer.values().length];
+        int atlasWidth = 0;
+        int atlasHeight = 1;
+        for (InternalPlayer owner : InternalPlayer.values()) {
+            try {
+                BufferedImage sprite = Assets.loadPlanet(owner);
+                sprites[owner.ordinal()] = sprite;
+                this.spriteX[owner.ordinal()] = atlasWidth;
+                this.spriteWidth[owner.ordinal()] = sprite.getWidth();
+                this.spriteHeight[owner.ordinal()] = sprite.getHeight();
+                atlasWidth += sprite.getWidth();
+                atlasHeight = Math.max(atlasHeight, sprite.getHeight());
+            } catch (IOException e) {
+                // Planets of this owner just aren't drawn, as before
+            }
+        }
+        BufferedImage atlas = createImage(configuration, Math.max(1, atlasWidth), atlasHeight);
+        Graphics2D atlasGraphics = atlas.createGraphics();
+        atlasGraphics.setComposite(AlphaComposite.Src);
+        for (InternalPlayer owner : InternalPlayer.values()) {
+            if (sprites[owner.ordinal()] != null) {
+                atlasGraphics.drawImage(sprites[owner.ordinal()], this.spriteX[owner.ordinal()], 0, null);
+            }
+        }
+        atlasGraphics.dispose();
+        this.atlas = atlas;
+
+        // Measure on the same kind of image the frame draws on, so that the labels come out as they did before
+        Graphics2D measuring = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+        FontMetrics metrics = measuring.getFontMetrics(LABEL_FONT);
+        this.ascent = metrics.getAscent();
+        this.maxAdvance = metrics.getMaxAdvance();
+        int height = Math.max(1, metrics.getAscent() + metrics.getDescent());
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            this.glyphAdvances[i] = metrics.charWidth(GLYPHS.charAt(i));
+            BufferedImage glyph = createImage(configuration, Math.max(1, this.glyphAdvances[i]), height);
+            Graphics2D glyphGraphics = glyph.createGraphics();
+            glyphGraphics.setFont(LABEL_FONT);
+            glyphGraphics.setColor(Color.WHITE);
+            glyphGraphics.drawString(GLYPHS.substring(i, i + 1), 0, this.ascent);
+            glyphGraphics.dispose();
+            this.glyphs[i] = glyph;
+        }
+        measuring.dispose();
+    }
+
+    private static BufferedImage createImage(GraphicsConfiguration configuration, int width, int height) {
+        return createImage(configuration, width, height, Transparency.TRANSLUCENT);
+    }
+
+    /**
+     * Creates an image that draws quickly on the given screen.
+     *
+     * @param configuration The screen, or null for a plain RGB or ARGB image
+     * @param transparency  {@link Transparency#OPAQUE} or {@link Transparency#TRANSLUCENT}
+     */
+    static BufferedImage createImage(GraphicsConfiguration configuration, int width, int height, int transparency) {
+        if (configuration == null) {
+            return new BufferedImage(width, height,
+                    transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        return configuration.createCompatibleImage(width, height, transparency);
+    }
+
+    /**
+     * Draws the sprite of a planet owned by the given player with its top left corner at (x, y).
+     *
+     * @return False if there is no sprite for that owner
+     */
+    public boolean drawPlanet(Graphics g, InternalPlayer owner, int x, int y) {
+        int i = owner.ordinal();
+        if (this.spriteWidth[i] == 0) {
+            return false;
+        }
+        g.drawImage(this.atlas, x, y, x + this.spriteWidth[i], y + this.spriteHeight[i],
+                this.spriteX[i], 0, this.spriteX[i] + this.spriteWidth[i], this.spriteHeight[i], null);
+        return true;
+    }
+
+    /**
+     * @return The area {@link #drawPlanet} covers, or an empty rectangle at (x, y) if there is no sprite for the owner
+     */
+    public Rectangle getPlanetBounds(InternalPlayer owner, int x, int y) {
+        return new Rectangle(x, y, this.spriteWidth[owner.ordinal()], this.spriteHeight[owner.ordinal()]);
+    }
+
+    /**
+     * @return The area {@link #drawNumber} covers
+     */
+    public Rectangle getNumberBounds(long value, int x, int y) {
+        return new Rectangle(x, y - this.ascent, this.getWidth(value), this.glyphs[0].getHeight(null));
+    }
+
+    /**
+     * @return The width of the number in the label font
+     */
+    public int getWidth(long value) {
+        int width = value < 0 ? this.glyphAdvances[GLYPHS.length() - 1] : 0;
+        long rest = Math.abs(value);
+        do {
+            width += this.glyphAdvances[(int) (rest % 10)];
+            rest /= 10;
+        } while (rest > 0);
+        return width;
+    }
+
+    /**
+     * Draws a number in white in the label font, starting at x with its baseline at y, without making a string of it.
+     */
+    public void drawNumber(Graphics g, long value, int x, int y) {
+        int top = y - this.ascent;
+        if (value < 0) {
+            g.drawImage(this.glyphs[GLYPHS.length() - 1], x, top, null);
+            x += this.glyphAdvances[GLYPHS.length() - 1];
+        }
+
+        long rest = Math.abs(value);
+        long place = 1;
+        while (rest / place >= 10) {
+            place *= 10;
+        }
+        for (; place > 0; place /= 10) {
+            int digit = (int) (rest / place % 10);
+            g.drawImage(this.glyphs[digit], x, top, null);
+            x += this.glyphAdvances[digit];
+        }
+    }
+
+    /**
+     * @return The label font's widest advance, which the labels are spaced by
+     */
+    public int getMaxAdvance() {
+        return maxAdvance;
+    }
+}
@@ -0,0 +1,66 @@
+package planetwars.core;
+
+/**
+ * What the renderer needs to know about a game at one point in time: who owns each planet and how many people live
+ * there, which turn it is and when that turn was captured, and whether the game is over. Planets are numbered in the order {@link PlanetWarsFrame} draws them; their ids
+ * and locations never change, so the renderer reads those from the planets themselves.
+ * <p>
+ * States are reused through a {@link TripleBuffer}: the simulation fills one in, publishes it, and never touches it
+ * again until the renderer has let go of it.
+ */
+final class RenderState {
+    private final InternalPlayer[] owners;
+    private final long[] populations;
+    private int turn;
+    private long capturedAt;
+    private boolean over;
+    private InternalPlayer winner;
+
+    public RenderState(int planets) {
+        this.owners = new InternalPlayer[planets];
+        this.populations = new long[planets];
+    }
+
+    /**
+     * Copies the current state of the game.
+     *
+     * @param planets The planets in drawing order
+     */
+    public void capture(PlanetWars game, Planet[] planets) {
+        for (int i = 0; i < planets.length; i++) {
+            this.owners[i] = planets[i].getOwningPlayer();
+            this.populations[i] = planets[i].getPopulation();
+        }
+        this.turn = game.getTurn();
+        this.capturedAt = System.nanoTime();
+        this.over = game.isOver();
+        this.winner = game.getWinner();
+    }
+
+    public InternalPlayer getOwner(int planet) {
+        return this.owners[planet];
+    }
+
+    public long getPopulation(int planet) {
+        return this.populations[planet];
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * @return When the state was captured, in {@link System#nanoTime()} time
+     */
+    public long getCapturedAt() {
+        return capturedAt;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    public InternalPlayer getWinner() {
+        return winner;
+    }
+}
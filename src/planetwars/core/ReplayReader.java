@@ -0,0 +1,180 @@
+package planetwars.core;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Re-simulates matches recorded by {@link ReplayWriter} on a {@link CompactGameState}, without running any strategy.
+ * <p>
+ * Recorded launches are validated again as they are applied, so replaying old matches after a rule change shows which
+ * results still hold.
+ */
+final class ReplayReader {
+    private static final InternalPlayer[] PLAYERS = InternalPlayer.values();
+
+    private final DataInputStream in;
+    private final String graph;
+    private final long seed;
+    private CompactGameState state;
+    private int turn;
+    private InternalPlayer winner = InternalPlayer.NEUTRAL;
+    private boolean over;
+    private int rejectedLaunches;
+
+    public ReplayReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        if (this.in.readInt() != ReplayWriter.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != ReplayWriter.VERSION) {
+            throw new IOException(String.format("Unsupported replay version %d", version));
+        }
+        this.graph = this.in.readUTF();
+        this.seed = this.in.readLong();
+    }
+
+    /**
+     * Plays the whole recording and closes the stream.
+     */
+    public Result replay() throws IOException {
+        try {
+            this.state = CompactGameState.load(this.graph);
+
+            int recordTurn = 0;
+            int sourceId = 0;
+            long delta;
+            while ((delta = readVarLong(this.in)) != 0) {
+                recordTurn += (int) delta;
+                advanceTo(recordTurn);
+
+                long launchCount = readVarLong(this.in);
+                for (long i = 0; i < launchCount; i++) {
+                    long source = readVarLong(this.in);
+                    InternalPlayer player = (source & 1) == 0 ? InternalPlayer.PLAYER1 : InternalPlayer.PLAYER2;
+                    sourceId += (int) unzigzag(source >>> 1);
+                    int destinationId = sourceId + (int) unzigzag(readVarLong(this.in));
+                    long numPeople = readVarLong(this.in);
+
+                    // Launches recorded after the re-simulated game ended can't be applied
+                    int distance = this.state.getDistance(sourceId, destinationId);
+                    if (this.over || !this.state.launch(sourceId, destinationId, player, numPeople, distance)) {
+                        this.rejectedLaunches++;
+                    }
+                }
+            }
+
+            int recordedTurns = (int) readVarLong(this.in);
+            InternalPlayer recordedWinner = PLAYERS[this.in.readUnsignedByte()];
+            advanceTo(recordedTurns);
+
+            return new Result(this.graph, this.seed, recordedTurns, recordedWinner, this.turn, this.winner, this.rejectedLaunches);
+        } finally {
+            this.in.close();
+        }
+    }
+
+    /**
+     * Ticks the state up to the given turn, checking for a winner after every tick the same way {@link PlanetWars} does.
+     */
+    private void advanceTo(int targetTurn) {
+        while (!this.over && this.turn < targetTurn) {
+            this.turn++;
+            this.state.tick();
+            if (this.state.hasWon(InternalPlayer.PLAYER1)) {
+                this.winner = InternalPlayer.PLAYER1;
+                this.over = true;
+            } else if (this.state.hasWon(InternalPlayer.PLAYER2)) {
+                this.winner = InternalPlayer.PLAYER2;
+                this.over = true;
+            }
+        }
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static final class Result {
+        private final String graph;
+        private final long seed;
+        private final int recordedTurns;
+        private final InternalPlayer recordedWinner;
+        private final int turns;
+        private final InternalPlayer winner;
+        private final int rejectedLaunches;
+
+        Result(String graph, long seed, int recordedTurns, InternalPlayer recordedWinner, int turns, InternalPlayer winner, int rejectedLaunches) {
+            this.graph = graph;
+            this.seed = seed;
+            this.recordedTurns = recordedTurns;
+            this.recordedWinner = recordedWinner;
+            this.turns = turns;
+            this.winner = winner;
+            this.rejectedLaunches = rejectedLaunches;
+        }
+
+        public String getGraph() {
+            return graph;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public int getTurns() {
+            return turns;
+        }
+
+        public InternalPlayer getWinner() {
+            return winner;
+        }
+
+        public int getRejectedLaunches() {
+            return rejectedLaunches;
+        }
+
+        /**
+         * True if re-simulating gave the same winner on the same turn as the recorded match.
+         */
+        public boolean matchesRecording() {
+            return winner == recordedWinner && turns == recordedTurns && rejectedLaunches == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s seed %d: recorded %s in %d turns, replayed %s in %d turns, %d launches rejected",
+                    graph, seed, recordedWinner, recordedTurns, winner, turns, rejectedLaunches);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        int mismatches = 0;
+        for (String filename : args) {
+            Result result = new ReplayReader(new FileInputStream(filename)).replay();
+            if (!result.matchesRecording()) {
+                mismatches++;
+                System.out.println(String.format("MISMATCH %s: %s", filename, result));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%d replays, %d mismatches in %.2fs (%.1f replays/s)",
+                args.length, mismatches, seconds, args.length / seconds));
+    }
+}
@@ -0,0 +1,119 @@
+package planetwars.core;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records a match as the map, the seed and every accepted shuttle launch, which is all {@link ReplayReader} needs to
+ * re-simulate it.
+ * <p>
+ * Layout: the header ({@link #MAGIC}, {@link #VERSION}, map name, seed), then one record per turn that had launches:
+ * the turn as a varint delta from the previous record, the launch count, and per launch the source id as a zigzag
+ * delta from the previous source (shifted left one bit, with the player in the low bit), the destination as a zigzag
+ * delta from the source, and the number of people. A zero turn delta ends the records and is followed by the final
+ * turn and the winner's ordinal. Flight times aren't stored since they follow from the map.
+ */
+final class ReplayWriter implements Closeable {
+    static final int MAGIC = 0x50575250; // "PWRP"
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private int recordTurn;
+    private int previousTurn;
+    private int previousSourceId;
+    private int launchCount;
+    private long[] launches = new long[48];
+    private boolean finished;
+
+    public ReplayWriter(OutputStream out, String graph, long seed) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeUTF(graph);
+        this.out.writeLong(seed);
+    }
+
+    public ReplayWriter(String filename, String graph, long seed) throws IOException {
+        this(new FileOutputStream(filename), graph, seed);
+    }
+
+    /**
+     * Records a launch the engine accepted. Launches must be recorded in the order they were applied.
+     */
+    public void recordLaunch(int turn, Shuttle shuttle) throws IOException {
+        if (turn != this.recordTurn) {
+            flushTurn();
+            this.recordTurn = turn;
+        }
+
+        if (this.launchCount * 3 == this.launches.length) {
+            long[] grown = new long[this.launches.length * 2];
+            System.arraycopy(this.launches, 0, grown, 0, this.launches.length);
+            this.launches = grown;
+        }
+
+        int player = shuttle.getOwningPlayer() == InternalPlayer.PLAYER1 ? 0 : 1;
+        this.launches[this.launchCount * 3] = zigzag((long) shuttle.getSourcePlanetId() - this.previousSourceId) << 1 | player;
+        this.launches[this.launchCount * 3 + 1] = zigzag((long) shuttle.getDestinationPlanetId() - shuttle.getSourcePlanetId());
+        this.launches[this.launchCount * 3 + 2] = shuttle.getNumberPeople();
+        this.previousSourceId = shuttle.getSourcePlanetId();
+        this.launchCount++;
+    }
+
+    private void flushTurn() throws IOException {
+        if (this.launchCount == 0) {
+            return;
+        }
+
+        writeVarLong(this.out, this.recordTurn - this.previousTurn);
+        writeVarLong(this.out, this.launchCount);
+        for (int i = 0; i < this.launchCount * 3; i++) {
+            writeVarLong(this.out, this.launches[i]);
+        }
+        this.previousTurn = this.recordTurn;
+        this.launchCount = 0;
+    }
+
+    /**
+     * Writes the trailer and closes the stream. Later calls do nothing.
+     */
+    public void finish(int finalTurn, InternalPlayer winner) throws IOException {
+        if (this.finished) {
+            return;
+        }
+        this.finished = true;
+
+        try {
+            flushTurn();
+            writeVarLong(this.out, 0);
+            writeVarLong(this.out, finalTurn);
+            this.out.writeByte(winner.ordinal());
+        } finally {
+            this.out.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!this.finished) {
+            this.finished = true;
+            this.out.close();
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -8,16 +8,17 @@ final class Shuttle implements IEvent {
     private final int destId;
     private final InternalPlayer owningPlayer;
     private final long numPeople;
-    private int turnsToArrival;
+    private final int flightTime;
+    private int arrivalTurn;
 
-    public Shuttle(int srcId, int destId, InternalPlayer owningPlayer, long numPeople, int turnsToArrival) {
+    public Shuttle(int srcId, int destId, InternalPlayer owningPlayer, long numPeople, int flightTime) {
         assert owningPlayer != InternalPlayer.NEUTRAL;
 
         this.srcId = srcId;
         this.destId = destId;
         this.owningPlayer = owningPlayer;
         this.numPeople = numPeople;
-        this.turnsToArrival = turnsToArrival;
+        this.flightTime = flightTime;
     }
 
     public long getNumberPeople() {
@@ -36,18 +37,34 @@ final class Shuttle implements IEvent {
         return destId;
     }
 
-    public int getTurnsToArrival() {
-        return turnsToArrival;
+    /**
+     * Number of turns between launch and arrival.
+     */
+    public int getFlightTime() {
+        return flightTime;
     }
 
-    public void moveCloser() {
-        if (this.turnsToArrival > 0) {
-            this.turnsToArrival--;
-        }
+    /**
+     * Fixes the turn the shuttle lands on. A shuttle always spends at least one turn in flight.
+     */
+    public void launch(int currentTurn) {
+        this.arrivalTurn = currentTurn + Math.max(1, this.flightTime);
+    }
+
+    public boolean isLaunched() {
+        return arrivalTurn > 0;
+    }
+
+    public int getArrivalTurn() {
+        return arrivalTurn;
+    }
+
+    public int getTurnsToArrival(int currentTurn) {
+        return this.arrivalTurn - currentTurn;
     }
 
-    public ShuttleSnapshot getShuttleSnapshot(InternalPlayer viewer) {
-        return new ShuttleSnapshot(this.srcId, this.destId, this.getOwnerFromViewer(viewer), this.numPeople, this.turnsToArrival);
+    public ShuttleSnapshot getShuttleSnapshot(InternalPlayer viewer, int currentTurn) {
+        return new ShuttleSnapshot(this.srcId, this.destId, this.getOwnerFromViewer(viewer), this.numPeople, this.getTurnsToArrival(currentTurn));
     }
 
     public Owner getOwnerFromViewer(InternalPlayer viewer) {
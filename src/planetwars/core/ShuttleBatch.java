@@ -0,0 +1,81 @@
+package planetwars.core;
+
+import planetwars.publicapi.IEvent;
+
+import java.util.Arrays;
+
+/**
+ * Many transfers queued as one event. Ids are resolved to dense indices and edges when the batch is created, so
+ * {@link EventIngestion} only has to check ownership and population per transfer.
+ */
+final class ShuttleBatch implements IEvent {
+    private final InternalPlayer owningPlayer;
+    private final int[] sources;
+    private final int[] destinations;
+    private final int[] edges;
+    private final long[] numPeople;
+    private boolean launched;
+
+    private ShuttleBatch(InternalPlayer owningPlayer, int[] sources, int[] destinations, int[] edges, long[] numPeople) {
+        this.owningPlayer = owningPlayer;
+        this.sources = sources;
+        this.destinations = destinations;
+        this.edges = edges;
+        this.numPeople = numPeople;
+    }
+
+    /**
+     * Copies the first {@code count} transfers of the given arrays, looking up every edge in one pass. Unknown planets
+     * get index -1 and missing edges edge -1; they are rejected when the batch is ingested.
+     */
+    public static ShuttleBatch of(Adjacency adjacency, InternalPlayer owningPlayer, int[] sourceIds, int[] destinationIds,
+                                  long[] numPeople, int count) {
+        PlanetIndex index = adjacency.getIndex();
+        int[] sources = new int[count];
+        int[] destinations = new int[count];
+        int[] edges = new int[count];
+        for (int i = 0; i < count; i++) {
+            int src = index.indexOf(sourceIds[i]);
+            int dest = index.indexOf(destinationIds[i]);
+            sources[i] = src;
+            destinations[i] = dest;
+            edges[i] = src >= 0 && dest >= 0 && src != dest ? adjacency.findEdge(src, dest) : -1;
+        }
+        return new ShuttleBatch(owningPlayer, sources, destinations, edges, Arrays.copyOf(numPeople, count));
+    }
+
+    public InternalPlayer getOwningPlayer() {
+        return owningPlayer;
+    }
+
+    public int size() {
+        return this.sources.length;
+    }
+
+    public int getSource(int i) {
+        return this.sources[i];
+    }
+
+    public int getDestination(int i) {
+        return this.destinations[i];
+    }
+
+    public int getEdge(int i) {
+        return this.edges[i];
+    }
+
+    public long getNumberPeople(int i) {
+        return this.numPeople[i];
+    }
+
+    /**
+     * Marks the batch as executed; like a shuttle, a batch can only be sent once.
+     */
+    public void launch() {
+        this.launched = true;
+    }
+
+    public boolean isLaunched() {
+        return launched;
+    }
+}
@@ -0,0 +1,83 @@
+package planetwars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing wheel holding every shuttle in flight, bucketed by the turn it arrives on.
+ * <p>
+ * Each turn only the bucket for that turn is touched, so the cost of a turn scales with the number of arrivals rather
+ * than the number of shuttles in flight. The wheel doubles whenever a shuttle is scheduled further out than it can
+ * represent, which in practice only happens while the first few long edges are used.
+ */
+final class ShuttleScheduler {
+    private static final int INITIAL_SLOTS = 16;
+
+    private List<Shuttle>[] slots;
+    private List<Shuttle> spare;
+    private int currentTurn;
+    private int size;
+
+    public ShuttleScheduler() {
+        this.slots = newSlots(INITIAL_SLOTS);
+        this.spare = new ArrayList<>();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Shuttle>[] newSlots(int count) {
+        List<Shuttle>[] slots = new List[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        return slots;
+    }
+
+    /**
+     * Files a launched shuttle under its arrival turn. Shuttles landing on the same turn keep their launch order.
+     */
+    public void schedule(Shuttle shuttle) {
+        int arrivalTurn = shuttle.getArrivalTurn();
+        assert arrivalTurn > this.currentTurn;
+
+        while (arrivalTurn - this.currentTurn >= this.slots.length) {
+            resize(this.slots.length * 2);
+        }
+        this.slots[arrivalTurn & (this.slots.length - 1)].add(shuttle);
+        this.size++;
+    }
+
+    /**
+     * Removes and returns the shuttles that land on the given turn, in launch order.
+     * <p>
+     * The returned list is reused by the scheduler; it is only valid until the next call.
+     */
+    public List<Shuttle> takeArrivals(int turn) {
+        this.currentTurn = turn;
+        this.spare.clear();
+
+        int slot = turn & (this.slots.length - 1);
+        List<Shuttle> arrivals = this.slots[slot];
+        this.slots[slot] = this.spare;
+        this.spare = arrivals;
+
+        this.size -= arrivals.size();
+        return arrivals;
+    }
+
+    /**
+     * @return The number of shuttles in flight
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize(int count) {
+        List<Shuttle>[] old = this.slots;
+        this.slots = newSlots(count);
+
+        // Every bucket holds a single arrival turn, so it moves over whole and keeps its launch order
+        for (int turn = this.currentTurn + 1; turn <= this.currentTurn + old.length; turn++) {
+            this.slots[turn & (count - 1)].addAll(old[turn & (old.length - 1)]);
+        }
+    }
+}
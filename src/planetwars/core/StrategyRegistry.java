@@ -0,0 +1,168 @@
+package planetwars.core;
+
+import planetwars.publicapi.IStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Loads strategy jars and makes instances of their strategies.
+ * <p>
+ * Each jar's classes are loaded once and cached by the SHA-256 of the jar's contents, so a jar loaded again, even under
+ * another name, reuses its class, and a jar that changes on disk is loaded afresh. A jar is only hashed again when its
+ * length or last-modified time changes, so after the first load a new instance costs a stat and a constructor call.
+ * <p>
+ * Strategies can also be warmed up with turns that don't count before they play, so that class loading and JIT
+ * compilation don't eat into the first turns of their games.
+ */
+final class StrategyRegistry {
+    private static final String STRATEGY_CLASS = "planetwars.strategies.Strategy";
+    private static final long WARM_UP_SEED = 0;
+
+    private final Map<String, Class<? extends IStrategy>> classesByHash = new HashMap<>();
+    private final Map<File, JarStamp> jars = new HashMap<>();
+    private final Map<Class<? extends IStrategy>, FutureTask<Void>> warmUps = new HashMap<>();
+
+    /**
+     * Gets the strategy class of a jar, loading it only if no jar with the same contents has been loaded before.
+     */
+    public synchronized Class<? extends IStrategy> loadClass(File jar) throws IOException, ClassNotFoundException {
+        File key = jar.getAbsoluteFile();
+        long length = key.length();
+        long modified = key.lastModified();
+        JarStamp stamp = this.jars.get(key);
+        if (stamp == null || stamp.length != length || stamp.modified != modified) {
+            stamp = new JarStamp(length, modified, hash(key));
+            this.jars.put(key, stamp);
+        }
+
+        Class<? extends IStrategy> strategyClass = this.classesByHash.get(stamp.hash);
+        if (strategyClass == null) {
+            // The loader stays open for as long as the class is cached, since strategies may load more classes lazily
+            ClassLoader loader = new URLClassLoader(new URL[]{key.toURI().toURL()}, IStrategy.class.getClassLoader());
+            strategyClass = loader.loadClass(STRATEGY_CLASS).asSubclass(IStrategy.class);
+            this.classesByHash.put(stamp.hash, strategyClass);
+        }
+        return strategyClass;
+    }
+
+    public IStrategy newInstance(File jar) throws IOException, ReflectiveOperationException {
+        return newInstance(this.loadClass(jar));
+    }
+
+    public static IStrategy newInstance(Class<? extends IStrategy> strategyClass) throws ReflectiveOperationException {
+        return strategyClass.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Plays the given number of turns on the map with fresh instances of the strategy, against itself, unless the
+     * class has been warmed up already. If another thread is already warming up the class this waits for it to finish.
+     * <p>
+     * The warm-up stops early if the strategy times out or fails, in which case it simply starts its games cold.
+     */
+    public void warmUp(final Class<? extends IStrategy> strategyClass, final String graph, final int turns) {
+        if (turns <= 0) {
+            return;
+        }
+
+        FutureTask<Void> warmUp;
+        boolean isOwner = false;
+        synchronized (this) {
+            warmUp = this.warmUps.get(strategyClass);
+            if (warmUp == null) {
+                warmUp = new FutureTask<>(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        playWarmUp(strategyClass, graph, turns);
+                        return null;
+                    }
+                });
+                this.warmUps.put(strategyClass, warmUp);
+                isOwner = true;
+            }
+        }
+
+        if (isOwner) {
+            warmUp.run();
+        }
+        try {
+            warmUp.get();
+        } catch (ExecutionException e) {
+            // Nothing to do: a strategy that can't be warmed up will fail the same way in its games
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * True if the class has finished warming up, whether or not the warm-up got all its turns in.
+     */
+    public synchronized boolean isWarm(Class<? extends IStrategy> strategyClass) {
+        FutureTask<Void> warmUp = this.warmUps.get(strategyClass);
+        return warmUp != null && warmUp.isDone();
+    }
+
+    private static void playWarmUp(Class<? extends IStrategy> strategyClass, String graph, int turns) throws Exception {
+        PlanetWars game = new PlanetWars(newInstance(strategyClass), newInstance(strategyClass), graph, WARM_UP_SEED);
+        try {
+            // Each tick is one turn of one of the two instances
+            for (int i = 0; i < turns && !game.isOver(); i++) {
+                game.gameTick();
+                TurnStats stats1 = game.getTurnStats(InternalPlayer.PLAYER1);
+                TurnStats stats2 = game.getTurnStats(InternalPlayer.PLAYER2);
+                if (stats1.getTimeouts() + stats1.getFailures() + stats2.getTimeouts() + stats2.getFailures() > 0) {
+                    break;
+                }
+            }
+        } finally {
+            game.shutdown();
+        }
+    }
+
+    private static String hash(File jar) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM has to provide SHA-256
+            throw new AssertionError(e);
+        }
+
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(jar.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static final class JarStamp {
+        private final long length;
+        private final long modified;
+        private final String hash;
+
+        JarStamp(long length, long modified, String hash) {
+            this.length = length;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+}
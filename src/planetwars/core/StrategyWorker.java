@@ -0,0 +1,193 @@
+package planetwars.core;
+
+import planetwars.publicapi.IEvent;
+import planetwars.publicapi.IPlanet;
+import planetwars.publicapi.IPlanetOperations;
+import planetwars.publicapi.IStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs one player's turns on a thread of its own, so a hung strategy can't hold up the other player.
+ * <p>
+ * A turn that overruns its time limit is interrupted and its thread is retired: the next turn starts on a fresh thread,
+ * while the old one is left to notice the interrupt and exit on its own. Java offers no safe way to stop a thread that
+ * ignores interrupts, so worker threads are daemons and never keep the JVM alive.
+ * <p>
+ * Every turn's CPU time, allocation and event count are read from the worker thread and added to its
+ * {@link TurnStats}, along with whether the turn timed out or the strategy threw.
+ */
+final class StrategyWorker {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean HOTSPOT_THREADS =
+            THREADS instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) THREADS : null;
+
+    static {
+        if (THREADS.isThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+        if (HOTSPOT_THREADS != null && HOTSPOT_THREADS.isThreadAllocatedMemorySupported()
+                && !HOTSPOT_THREADS.isThreadAllocatedMemoryEnabled()) {
+            HOTSPOT_THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    private final String name;
+    private final TurnStats stats = new TurnStats();
+    private ThreadPoolExecutor executor;
+    private volatile Thread thread;
+    private int generation;
+
+    public StrategyWorker(String name) {
+        this.name = name;
+        this.executor = this.newExecutor();
+    }
+
+    private ThreadPoolExecutor newExecutor() {
+        final String threadName = String.format("%s-%d", this.name, this.generation++);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        StrategyWorker.this.thread = thread;
+                        return thread;
+                    }
+                });
+        // Start the thread now so its counters can be read before the first turn
+        executor.prestartCoreThread();
+        return executor;
+    }
+
+    /**
+     * Runs one turn and waits for it up to the time limit.
+     *
+     * @return The events the strategy queued before it returned or ran out of time, or none if the turn went over
+     * budget
+     */
+    public List<IEvent> takeTurn(IStrategy strategy, List<IPlanet> snapshot, IPlanetOperations operations,
+                                 int eventLimit, long timeout, TimeUnit unit, TurnBudget budget) {
+        PendingTurn turn = this.startTurn(strategy, snapshot, operations, eventLimit);
+        return this.finishTurn(turn, System.nanoTime() + unit.toNanos(timeout), budget);
+    }
+
+    /**
+     * Starts a turn without waiting for it, so that both players can think at the same time. Every started turn must
+     * be passed to {@link #finishTurn} before the next one is started.
+     *
+     * @param eventLimit The most events the strategy can queue this turn
+     */
+    public PendingTurn startTurn(final IStrategy strategy, final List<IPlanet> snapshot, final IPlanetOperations operations,
+                                 int eventLimit) {
+        final TurnEventQueue events = new TurnEventQueue(eventLimit);
+        Thread thread = this.thread;
+        long startCpu = cpuTime(thread);
+        long startAllocated = allocatedBytes(thread);
+
+        Future<?> future = this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                strategy.takeTurn(snapshot, operations, events);
+            }
+        });
+        return new PendingTurn(future, events, thread, startCpu, startAllocated);
+    }
+
+    /**
+     * Waits for a started turn until the deadline.
+     *
+     * @param deadline In {@link System#nanoTime()} terms
+     * @return The events the strategy queued before it returned or ran out of time, or none if the turn went over
+     * budget
+     */
+    public List<IEvent> finishTurn(PendingTurn turn, long deadline, TurnBudget budget) {
+        boolean timedOut = false;
+        boolean failed = false;
+        try {
+            turn.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut = true;
+            turn.future.cancel(true);
+        } catch (InterruptedException e) {
+            // The game itself is being stopped
+            turn.future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // A strategy that throws still gets the moves it queued before failing
+            failed = true;
+        }
+
+        List<IEvent> queued = turn.events.close();
+        this.stats.recordRejections(EventIngestion.Rejection.QUEUE_FULL, turn.events.getOverflow());
+        long cpuNanos = elapsed(turn.startCpu, cpuTime(turn.thread));
+        long allocated = elapsed(turn.startAllocated, allocatedBytes(turn.thread));
+        if (timedOut) {
+            this.retire();
+        }
+
+        boolean exceededBudget = budget.isExceeded(cpuNanos, allocated, queued.size());
+        this.stats.record(cpuNanos, allocated, queued.size(), timedOut, failed, exceededBudget);
+        return exceededBudget ? Collections.<IEvent>emptyList() : queued;
+    }
+
+    /**
+     * A turn that has been handed to the worker thread but not collected yet.
+     */
+    static final class PendingTurn {
+        private final Future<?> future;
+        private final TurnEventQueue events;
+        private final Thread thread;
+        private final long startCpu;
+        private final long startAllocated;
+
+        private PendingTurn(Future<?> future, TurnEventQueue events, Thread thread, long startCpu, long startAllocated) {
+            this.future = future;
+            this.events = events;
+            this.thread = thread;
+            this.startCpu = startCpu;
+            this.startAllocated = startAllocated;
+        }
+    }
+
+    private static long cpuTime(Thread thread) {
+        return THREADS.isThreadCpuTimeEnabled() ? THREADS.getThreadCpuTime(thread.getId()) : -1;
+    }
+
+    private static long allocatedBytes(Thread thread) {
+        if (HOTSPOT_THREADS == null || !HOTSPOT_THREADS.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return HOTSPOT_THREADS.getThreadAllocatedBytes(thread.getId());
+    }
+
+    private static long elapsed(long start, long end) {
+        return start < 0 || end < 0 ? -1 : end - start;
+    }
+
+    /**
+     * Abandons the current thread, which may still be running an overdue turn, and starts a new one for later turns.
+     */
+    private void retire() {
+        this.executor.shutdownNow();
+        this.executor = this.newExecutor();
+    }
+
+    public TurnStats getStats() {
+        return stats;
+    }
+
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+}
@@ -1,76 +1,99 @@
 package planetwars.core;
 
-import com.paypal.digraph.parser.GraphEdge;
-import com.paypal.digraph.parser.GraphNode;
-import com.paypal.digraph.parser.GraphParser;
-
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Loads maps by name from {@code graphs/}.
+ * <p>
+ * The first time a DOT map is loaded it is compiled to a {@link MapFile} next to it, and later loads map that file
+ * instead of parsing the DOT again. The compiled file remembers the length and last-modified time of the DOT file, so
+ * editing a map recompiles it. A map that only exists compiled is loaded as is.
+ */
 final class SystemLoader {
     static Map<Integer, Planet> load(String graph, IPlanetLookup planetLookup) throws FileNotFoundException {
-        GraphParser parser = Assets.loadGraph(graph);
-        Map<Integer, Planet> planetsMap = new HashMap<>();
-
-        for (Map.Entry<String, GraphNode> entry : parser.getNodes().entrySet()) {
-            GraphNode node = entry.getValue();
-            int id = Integer.parseInt(entry.getKey());
-            int habitability = Integer.parseInt((String) node.getAttribute("habit"));
-            int size = Integer.parseInt((String) node.getAttribute("size"));
-            int x = Integer.parseInt((String) node.getAttribute("x"));
-            int y = Integer.parseInt((String) node.getAttribute("y"));
-
-            boolean isHomeworld;
-            InternalPlayer owningPlayer;
-            String base = (String) node.getAttribute("base");
-            if (base == null) {
-                isHomeworld = false;
-                owningPlayer = InternalPlayer.NEUTRAL;
-            } else {
-                isHomeworld = true;
-                switch (base) {
-                    case "1":
-                        owningPlayer = InternalPlayer.PLAYER1;
-                        break;
-                    case "2":
-                        owningPlayer = InternalPlayer.PLAYER2;
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Base must be either 1 or 2");
-                }
+        File source = Assets.getGraphFile(graph);
+        File compiled = Assets.getCompiledGraphFile(graph);
+        if (!source.isFile()) {
+            if (!compiled.isFile()) {
+                throw new FileNotFoundException(source.getPath());
             }
-
-            Planet planet = new Planet(id, habitability, size, owningPlayer, isHomeworld, planetLookup);
-            if (isHomeworld) {
-                planet.setPopulation(1);
+            try {
+                return MapFile.read(compiled, planetLookup);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            planet.setLocation(new Point2D(x, y));
+        }
 
-            planetsMap.put(id, planet);
+        long sourceLength = source.length();
+        long sourceModified = source.lastModified();
+        if (compiled.isFile()) {
+            try {
+                if (MapFile.isCompiledFrom(compiled, sourceLength, sourceModified)) {
+                    return MapFile.read(compiled, planetLookup);
+                }
+            } catch (IOException e) {
+                // An unreadable or corrupt compiled file is simply replaced
+            }
         }
 
-        for (Map.Entry<String, GraphEdge> entry : parser.getEdges().entrySet()) {
-            GraphEdge edge = entry.getValue();
-            int id1 = Integer.parseInt(edge.getNode1().getId());
-            int id2 = Integer.parseInt(edge.getNode2().getId());
-            int distance = Integer.parseInt((String) edge.getAttribute("weight"));
+        Map<Integer, Planet> planets = parse(graph, planetLookup);
+        compile(compiled, planets.values(), sourceLength, sourceModified);
+        return planets;
+    }
 
-            Planet planet1 = planetsMap.get(id1);
-            Planet planet2 = planetsMap.get(id2);
-            planet1.addEdge(planet2, distance);
+    /**
+     * Reads a map from its DOT file, ignoring any compiled copy.
+     */
+    static Map<Integer, Planet> parse(String graph, IPlanetLookup planetLookup) throws FileNotFoundException {
+        try (Reader in = Assets.loadGraph(graph)) {
+            return MapParser.parse(in, graph + ".dot", planetLookup);
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        return planetsMap;
+    /**
+     * Writes the compiled file through a temporary file, so that games loading the same map at the same time never see
+     * it half written. The cache is only an optimization, so failing to write it isn't an error.
+     */
+    private static void compile(File compiled, Collection<Planet> planets, long sourceLength, long sourceModified) {
+        File temporary = null;
+        try {
+            temporary = File.createTempFile(compiled.getName(), ".tmp", compiled.getAbsoluteFile().getParentFile());
+            MapFile.write(temporary, planets, sourceLength, sourceModified);
+            Files.move(temporary.toPath(), compiled.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (temporary != null) {
+                temporary.delete();
+            }
+        }
     }
 
-    public static void save(String filename, Collection<Planet> planets) {
-        throw new UnsupportedOperationException("Not implemented yet");
+    /**
+     * Saves the planets' map in the binary {@link MapFile} format.
+     */
+    public static void save(String filename, Collection<Planet> planets) throws IOException {
+        MapFile.write(new File(filename), planets, 0, 0);
     }
 
+    /**
+     * Compiles every map in {@code graphs/} that isn't compiled yet, or has changed since it was.
+     */
     public static void main(String[] args) throws FileNotFoundException {
-        Map<Integer, Planet> planetMap = load("graph", null);
-        System.out.println();
+        String[] graphs = Assets.getGraphs();
+        for (String graph : graphs) {
+            load(graph.substring(0, graph.length() - ".dot".length()), null);
+        }
+        System.out.println(String.format("Compiled %d maps", graphs.length));
     }
 }
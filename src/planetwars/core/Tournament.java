@@ -0,0 +1,333 @@
+package planetwars.core;
+
+import planetwars.publicapi.IStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless round-robin tournament: every strategy jar plays every other one on every map, once from each side.
+ * <p>
+ * Games are independent, so they are spread over a work-stealing pool with one worker per core. Every game gets its
+ * own seed drawn from the tournament seed, and can optionally be recorded for {@link ReplayReader}.
+ */
+final class Tournament {
+    private static final int DEFAULT_MAX_ROUNDS = 2000;
+    private static final int DEFAULT_WARM_UP_TURNS = 100;
+
+    private final String[] strategies;
+    private final String[] graphs;
+    private final int maxRounds;
+    private final long seed;
+    private final File replayDirectory;
+    private final TurnBudget turnBudget;
+    private final Map<String, TurnStats> strategyStats = new LinkedHashMap<>();
+    private int warmUpTurns;
+
+    /**
+     * @param replayDirectory Where to write a replay of every game, or null to not record them
+     * @param turnBudget      Limits on every turn of every game
+     */
+    public Tournament(String[] strategies, String[] graphs, int maxRounds, long seed, File replayDirectory, TurnBudget turnBudget) {
+        this.strategies = strategies;
+        this.graphs = graphs;
+        this.maxRounds = maxRounds;
+        this.seed = seed;
+        this.replayDirectory = replayDirectory;
+        this.turnBudget = turnBudget;
+        for (String strategy : strategies) {
+            this.strategyStats.put(strategy, new TurnStats());
+        }
+    }
+
+    /**
+     * Plays every pairing and returns the records keyed by pairing, in the order the pairings were scheduled.
+     */
+    public Map<String, PairingRecord> run() throws InterruptedException {
+        Map<String, PairingRecord> records = new LinkedHashMap<>();
+        List<Game> games = new ArrayList<>();
+        Random seeds = new Random(this.seed);
+
+        for (int i = 0; i < this.strategies.length; i++) {
+            for (int j = i + 1; j < this.strategies.length; j++) {
+                PairingRecord record = new PairingRecord(this.strategies[i], this.strategies[j]);
+                records.put(record.toString(), record);
+
+                for (String graph : this.graphs) {
+                    games.add(new Game(record, this.strategies[i], this.strategies[j], graph, false, seeds.nextLong()));
+                    games.add(new Game(record, this.strategies[j], this.strategies[i], graph, true, seeds.nextLong()));
+                }
+            }
+        }
+
+        ExecutorService pool = Executors.newWorkStealingPool();
+        try {
+            this.warmUp(pool);
+            List<Future<GameResult>> results = pool.invokeAll(games);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    GameResult result = results.get(i).get();
+                    result.record.add(result);
+                    this.strategyStats.get(result.player1).add(result.player1Stats);
+                    this.strategyStats.get(result.player2).add(result.player2Stats);
+                } catch (ExecutionException e) {
+                    // A strategy or map that fails to load shouldn't sink the rest of the tournament; the game is
+                    // counted as failed instead
+                    Game game = games.get(i);
+                    game.record.addFailure();
+                    Throwable cause = e.getCause();
+                    // The pool wraps checked exceptions in a RuntimeException, and may rethrow copies of exceptions
+                    while (cause.getCause() != null && (cause.getClass() == RuntimeException.class
+                            || cause.getClass() == cause.getCause().getClass())) {
+                        cause = cause.getCause();
+                    }
+                    System.err.println(String.format("%s: %s", game, cause.getMessage()));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return records;
+    }
+
+    /**
+     * Warms up every strategy on the first map, all at once, and waits for them to be done before any game starts.
+     */
+    private void warmUp(ExecutorService pool) throws InterruptedException {
+        if (this.warmUpTurns <= 0 || this.graphs.length == 0) {
+            return;
+        }
+
+        List<Callable<Void>> warmUps = new ArrayList<>();
+        for (final String strategy : this.strategies) {
+            warmUps.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    StrategyRegistry registry = Assets.getStrategyRegistry();
+                    registry.warmUp(registry.loadClass(Assets.getStrategyFile(strategy)), graphs[0], warmUpTurns);
+                    return null;
+                }
+            });
+        }
+        // A strategy that fails to load isn't warmed up; its games fail, and are counted as failed in the results
+        pool.invokeAll(warmUps);
+    }
+
+    /**
+     * Sets how many turns each strategy plays against itself before the tournament starts, to get class loading and
+     * JIT compilation out of the way; 0, the default, to not warm up.
+     */
+    public void setWarmUpTurns(int warmUpTurns) {
+        this.warmUpTurns = warmUpTurns;
+    }
+
+    /**
+     * Gets what each strategy's turns cost over all the games played so far, keyed by strategy.
+     */
+    public Map<String, TurnStats> getStrategyStats() {
+        return strategyStats;
+    }
+
+    private final class Game implements Callable<GameResult> {
+        private final PairingRecord record;
+        private final String player1;
+        private final String player2;
+        private final String graph;
+        private final boolean swapped;
+        private final long seed;
+
+        Game(PairingRecord record, String player1, String player2, String graph, boolean swapped, long seed) {
+            this.record = record;
+            this.player1 = player1;
+            this.player2 = player2;
+            this.graph = graph;
+            this.swapped = swapped;
+            this.seed = seed;
+        }
+
+        @Override
+        public GameResult call() throws IOException {
+            // Strategies may keep state between turns, so every game gets fresh instances
+            IStrategy strategy1 = loadPlayer(this.player1);
+            IStrategy strategy2 = loadPlayer(this.player2);
+            PlanetWars planetWars = new PlanetWars(strategy1, strategy2, this.graph, this.seed);
+            planetWars.setTurnBudget(turnBudget);
+            if (replayDirectory != null) {
+                String name = String.format("%s-%s-%s.pwr", this.player1, this.player2, this.graph);
+                planetWars.setReplayWriter(new ReplayWriter(new File(replayDirectory, name).getPath(), this.graph, this.seed));
+            }
+
+            int rounds = 0;
+            try {
+                while (!planetWars.isOver() && rounds < maxRounds) {
+                    planetWars.gameTick();
+                    rounds++;
+                }
+            } finally {
+                planetWars.shutdown();
+            }
+
+            return new GameResult(this.record, planetWars.getWinner(), this.swapped, rounds,
+                    this.player1, planetWars.getTurnStats(InternalPlayer.PLAYER1),
+                    this.player2, planetWars.getTurnStats(InternalPlayer.PLAYER2));
+        }
+
+        private IStrategy loadPlayer(String strategy) throws IOException {
+            IStrategy player = Assets.loadPlayer(strategy);
+            if (player == null) {
+                throw new IOException(String.format("Could not load strategy %s from %s", strategy,
+                        Assets.getStrategyFile(strategy)));
+            }
+            return player;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s vs %s on %s", this.player1, this.player2, this.graph);
+        }
+    }
+
+    private static final class GameResult {
+        private final PairingRecord record;
+        private final InternalPlayer winner;
+        private final boolean swapped;
+        private final int rounds;
+        private final String player1;
+        private final TurnStats player1Stats;
+        private final String player2;
+        private final TurnStats player2Stats;
+
+        GameResult(PairingRecord record, InternalPlayer winner, boolean swapped, int rounds,
+                   String player1, TurnStats player1Stats, String player2, TurnStats player2Stats) {
+            this.record = record;
+            this.winner = winner;
+            this.swapped = swapped;
+            this.rounds = rounds;
+            this.player1 = player1;
+            this.player1Stats = player1Stats;
+            this.player2 = player2;
+            this.player2Stats = player2Stats;
+        }
+    }
+
+    /**
+     * Win/loss/draw record between two strategies, counted from the point of view of the first one.
+     */
+    static final class PairingRecord {
+        private final String first;
+        private final String second;
+        private int wins;
+        private int losses;
+        private int draws;
+        private int failures;
+        private long rounds;
+
+        PairingRecord(String first, String second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        private void add(GameResult result) {
+            InternalPlayer firstPlayer = result.swapped ? InternalPlayer.PLAYER2 : InternalPlayer.PLAYER1;
+            if (result.winner == InternalPlayer.NEUTRAL) {
+                this.draws++;
+            } else if (result.winner == firstPlayer) {
+                this.wins++;
+            } else {
+                this.losses++;
+            }
+            this.rounds += result.rounds;
+        }
+
+        private void addFailure() {
+            this.failures++;
+        }
+
+        public int getGames() {
+            return wins + losses + draws;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getLosses() {
+            return losses;
+        }
+
+        public int getDraws() {
+            return draws;
+        }
+
+        /**
+         * @return How many games couldn't be played, e.g. because a strategy failed to load; they aren't counted as
+         * games
+         */
+        public int getFailures() {
+            return failures;
+        }
+
+        public long getRounds() {
+            return rounds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s vs %s", this.first, this.second);
+        }
+    }
+
+    private static String[] stripExtensions(String[] files, String extension) {
+        String[] names = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            names[i] = files[i].substring(0, files[i].length() - extension.length());
+        }
+        return names;
+    }
+
+    /**
+     * Usage: {@code Tournament [maxRounds [seed [replayDirectory [warmUpTurns]]]]}
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxRounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_ROUNDS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : new Random().nextLong();
+        File replayDirectory = null;
+        if (args.length > 2) {
+            replayDirectory = new File(args[2]);
+            replayDirectory.mkdirs();
+        }
+        String[] strategies = stripExtensions(Assets.getStrategies(), ".jar");
+        String[] graphs = stripExtensions(Assets.getGraphs(), ".dot");
+
+        System.out.println(String.format("Tournament seed %d", seed));
+        int warmUpTurns = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_WARM_UP_TURNS;
+        Tournament tournament = new Tournament(strategies, graphs, maxRounds, seed, replayDirectory, TurnBudget.UNLIMITED);
+        tournament.setWarmUpTurns(warmUpTurns);
+        long start = System.nanoTime();
+        Map<String, PairingRecord> records = tournament.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int games = 0;
+        for (PairingRecord record : records.values()) {
+            games += record.getGames();
+            System.out.println(String.format("%-40s W %5d  L %5d  D %5d  F %5d  rounds %8d",
+                    record, record.getWins(), record.getLosses(), record.getDraws(), record.getFailures(),
+                    record.getRounds()));
+        }
+        for (Map.Entry<String, TurnStats> entry : tournament.getStrategyStats().entrySet()) {
+            System.out.println(String.format("%-20s %s", entry.getKey(), entry.getValue()));
+        }
+        System.out.println(String.format("%d games in %.2fs (%.1f games/s)", games, seconds, games / seconds));
+    }
+}
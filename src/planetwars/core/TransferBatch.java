@@ -0,0 +1,52 @@
+package planetwars.core;
+
+import planetwars.publicapi.IEvent;
+import planetwars.publicapi.ITransferBatch;
+
+import java.util.Arrays;
+
+final class TransferBatch implements ITransferBatch {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Adjacency adjacency;
+    private final InternalPlayer player;
+    private int[] sourceIds = new int[INITIAL_CAPACITY];
+    private int[] destinationIds = new int[INITIAL_CAPACITY];
+    private long[] numPeople = new long[INITIAL_CAPACITY];
+    private int size;
+
+    public TransferBatch(Adjacency adjacency, InternalPlayer player) {
+        this.adjacency = adjacency;
+        this.player = player;
+    }
+
+    @Override
+    public ITransferBatch add(int sourcePlanetId, int destinationPlanetId, long numPeople) {
+        if (this.size == this.sourceIds.length) {
+            int capacity = this.size * 2;
+            this.sourceIds = Arrays.copyOf(this.sourceIds, capacity);
+            this.destinationIds = Arrays.copyOf(this.destinationIds, capacity);
+            this.numPeople = Arrays.copyOf(this.numPeople, capacity);
+        }
+        this.sourceIds[this.size] = sourcePlanetId;
+        this.destinationIds[this.size] = destinationPlanetId;
+        this.numPeople[this.size] = numPeople;
+        this.size++;
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        this.size = 0;
+    }
+
+    @Override
+    public IEvent build() {
+        return ShuttleBatch.of(this.adjacency, this.player, this.sourceIds, this.destinationIds, this.numPeople, this.size);
+    }
+}
@@ -0,0 +1,52 @@
+package planetwars.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands values from one writer thread to one reader thread without locks or allocation.
+ * <p>
+ * There are three slots: the writer fills its back slot and publishes it by swapping it with the middle one, and the
+ * reader takes the middle slot by swapping it with its front slot whenever something new has been published. Neither
+ * side ever waits, and neither touches a slot the other one owns, so the reader always sees a complete value: the
+ * newest one published, with older ones it never got to skipped.
+ */
+final class TripleBuffer<T> {
+    // Set in middle when the slot there was published after the reader last took one
+    private static final int FRESH = 4;
+    private static final int SLOT = 3;
+
+    private final Object[] slots;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 2;
+    private int front = 0;
+
+    public TripleBuffer(T slot0, T slot1, T slot2) {
+        this.slots = new Object[]{slot0, slot1, slot2};
+    }
+
+    /**
+     * @return The slot for the writer to fill in; it belongs to the writer until {@link #publish()}
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) this.slots[this.back];
+    }
+
+    /**
+     * Makes the back slot the newest value and gives the writer another one.
+     */
+    public void publish() {
+        this.back = this.middle.getAndSet(this.back | FRESH) & SLOT;
+    }
+
+    /**
+     * @return The newest published value; it belongs to the reader until its next call
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        if ((this.middle.get() & FRESH) != 0) {
+            this.front = this.middle.getAndSet(this.front) & SLOT;
+        }
+        return (T) this.slots[this.front];
+    }
+}
@@ -0,0 +1,41 @@
+package planetwars.core;
+
+/**
+ * Per-turn resource limits for a strategy, on top of the wall-clock time limit. A turn that goes over any of them is
+ * forfeited: none of its events are executed.
+ * <p>
+ * CPU time and allocation are measured on the strategy's own thread, so unlike wall-clock time they aren't skewed by
+ * other games sharing the host.
+ */
+final class TurnBudget {
+    public static final TurnBudget UNLIMITED = new TurnBudget(Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final long maxCpuNanos;
+    private final long maxAllocatedBytes;
+    private final int maxEvents;
+
+    public TurnBudget(long maxCpuNanos, long maxAllocatedBytes, int maxEvents) {
+        this.maxCpuNanos = maxCpuNanos;
+        this.maxAllocatedBytes = maxAllocatedBytes;
+        this.maxEvents = maxEvents;
+    }
+
+    /**
+     * Measurements the JVM can't provide are passed as -1 and never count against the budget.
+     */
+    public boolean isExceeded(long cpuNanos, long allocatedBytes, int events) {
+        return cpuNanos > this.maxCpuNanos || allocatedBytes > this.maxAllocatedBytes || events > this.maxEvents;
+    }
+
+    public long getMaxCpuNanos() {
+        return maxCpuNanos;
+    }
+
+    public long getMaxAllocatedBytes() {
+        return maxAllocatedBytes;
+    }
+
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+}
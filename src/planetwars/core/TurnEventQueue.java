@@ -0,0 +1,119 @@
+package planetwars.core;
+
+import planetwars.publicapi.IEvent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The queue a strategy adds its events to during one turn.
+ * <p>
+ * A strategy that overruns its turn may still be adding events while the engine processes the turn, so access is
+ * synchronized and {@link #close()} freezes the contents: the engine works from the returned copy and anything the
+ * strategy adds afterwards is refused.
+ * <p>
+ * The queue also holds at most a fixed number of events, so a strategy that floods it can't make the engine's work grow
+ * without bound. Events offered beyond that are refused and counted.
+ * <p>
+ * Unlike other bounded queues, {@link #add} refuses an event the same way {@link #offer} does instead of throwing:
+ * strategies add their events with {@code add}, and one event too many shouldn't throw away the rest of their turn.
+ */
+final class TurnEventQueue extends AbstractQueue<IEvent> {
+    private final ArrayDeque<IEvent> events = new ArrayDeque<>();
+    private final int capacity;
+    private boolean closed;
+    private long overflow;
+
+    public TurnEventQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized boolean offer(IEvent event) {
+        if (this.closed) {
+            return false;
+        }
+        if (this.events.size() >= this.capacity) {
+            this.overflow++;
+            return false;
+        }
+        return this.events.offer(event);
+    }
+
+    /**
+     * Same as {@link #offer}: an event that doesn't fit, or comes after the turn is over, is refused without throwing.
+     */
+    @Override
+    public boolean add(IEvent event) {
+        return this.offer(event);
+    }
+
+    @Override
+    public synchronized IEvent poll() {
+        return this.closed ? null : this.events.poll();
+    }
+
+    @Override
+    public synchronized IEvent peek() {
+        return this.closed ? null : this.events.peek();
+    }
+
+    @Override
+    public synchronized int size() {
+        return this.events.size();
+    }
+
+    /**
+     * Iterates over a copy, so a strategy can iterate without holding the lock. Removing through the iterator removes
+     * the element from the queue.
+     */
+    @Override
+    public Iterator<IEvent> iterator() {
+        final Iterator<IEvent> copy;
+        synchronized (this) {
+            copy = new ArrayList<>(this.events).iterator();
+        }
+
+        return new Iterator<IEvent>() {
+            private IEvent last;
+
+            @Override
+            public boolean hasNext() {
+                return copy.hasNext();
+            }
+
+            @Override
+            public IEvent next() {
+                this.last = copy.next();
+                return this.last;
+            }
+
+            @Override
+            public void remove() {
+                synchronized (TurnEventQueue.this) {
+                    if (!closed) {
+                        events.removeFirstOccurrence(this.last);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * @return How many events were refused because the queue was full
+     */
+    public synchronized long getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Stops accepting events and returns the ones queued so far, in order.
+     */
+    public synchronized List<IEvent> close() {
+        this.closed = true;
+        return new ArrayList<>(this.events);
+    }
+}
@@ -0,0 +1,166 @@
+package planetwars.core;
+
+/**
+ * Running totals of what one player's turns cost: thread CPU time, bytes allocated and events queued, and how many
+ * turns timed out or failed.
+ * <p>
+ * CPU time and allocation are only counted if the JVM can measure them; see {@link #isCpuTimeMeasured()} and
+ * {@link #isAllocationMeasured()}.
+ */
+final class TurnStats {
+    private int turns;
+    private int timeouts;
+    private int failures;
+    private int overBudget;
+    private long totalCpuNanos;
+    private long maxCpuNanos;
+    private long totalAllocatedBytes;
+    private long maxAllocatedBytes;
+    private long totalEvents;
+    private int maxEvents;
+    private boolean cpuTimeMeasured;
+    private boolean allocationMeasured;
+    private final long[] rejections = new long[EventIngestion.Rejection.values().length];
+
+    /**
+     * @param cpuNanos       CPU time used by the turn, or -1 if it couldn't be measured
+     * @param allocatedBytes Bytes allocated by the turn, or -1 if they couldn't be measured
+     * @param failed         Whether the strategy threw out of its turn
+     */
+    public void record(long cpuNanos, long allocatedBytes, int events, boolean timedOut, boolean failed,
+                       boolean exceededBudget) {
+        this.turns++;
+        if (timedOut) {
+            this.timeouts++;
+        }
+        if (failed) {
+            this.failures++;
+        }
+        if (exceededBudget) {
+            this.overBudget++;
+        }
+        if (cpuNanos >= 0) {
+            this.cpuTimeMeasured = true;
+            this.totalCpuNanos += cpuNanos;
+            this.maxCpuNanos = Math.max(this.maxCpuNanos, cpuNanos);
+        }
+        if (allocatedBytes >= 0) {
+            this.allocationMeasured = true;
+            this.totalAllocatedBytes += allocatedBytes;
+            this.maxAllocatedBytes = Math.max(this.maxAllocatedBytes, allocatedBytes);
+        }
+        this.totalEvents += events;
+        this.maxEvents = Math.max(this.maxEvents, events);
+    }
+
+    public void recordRejection(EventIngestion.Rejection reason) {
+        this.rejections[reason.ordinal()]++;
+    }
+
+    public void recordRejections(EventIngestion.Rejection reason, long count) {
+        this.rejections[reason.ordinal()] += count;
+    }
+
+    /**
+     * Adds another set of totals to this one, e.g. to sum up a strategy over a whole tournament.
+     */
+    public void add(TurnStats other) {
+        this.turns += other.turns;
+        this.timeouts += other.timeouts;
+        this.failures += other.failures;
+        this.overBudget += other.overBudget;
+        this.totalCpuNanos += other.totalCpuNanos;
+        this.maxCpuNanos = Math.max(this.maxCpuNanos, other.maxCpuNanos);
+        this.totalAllocatedBytes += other.totalAllocatedBytes;
+        this.maxAllocatedBytes = Math.max(this.maxAllocatedBytes, other.maxAllocatedBytes);
+        this.totalEvents += other.totalEvents;
+        this.maxEvents = Math.max(this.maxEvents, other.maxEvents);
+        this.cpuTimeMeasured |= other.cpuTimeMeasured;
+        this.allocationMeasured |= other.allocationMeasured;
+        for (int i = 0; i < this.rejections.length; i++) {
+            this.rejections[i] += other.rejections[i];
+        }
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return How many turns ended with the strategy throwing an exception
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return How many turns were forfeited for going over their {@link TurnBudget}
+     */
+    public int getOverBudget() {
+        return overBudget;
+    }
+
+    public boolean isCpuTimeMeasured() {
+        return cpuTimeMeasured;
+    }
+
+    public boolean isAllocationMeasured() {
+        return allocationMeasured;
+    }
+
+    public long getTotalCpuNanos() {
+        return totalCpuNanos;
+    }
+
+    public long getMaxCpuNanos() {
+        return maxCpuNanos;
+    }
+
+    public long getTotalAllocatedBytes() {
+        return totalAllocatedBytes;
+    }
+
+    public long getMaxAllocatedBytes() {
+        return maxAllocatedBytes;
+    }
+
+    public long getTotalEvents() {
+        return totalEvents;
+    }
+
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    /**
+     * @return How many events were refused for the given reason
+     */
+    public long getRejections(EventIngestion.Rejection reason) {
+        return this.rejections[reason.ordinal()];
+    }
+
+    public long getTotalRejections() {
+        long total = 0;
+        for (long count : this.rejections) {
+            total += count;
+        }
+        return total;
+    }
+
+    private double mean(long total) {
+        return this.turns == 0 ? 0 : (double) total / this.turns;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d turns, %d timeouts, %d failures, %d over budget, cpu %.3f/%.3f ms, alloc %.1f/%.1f KB, events %.1f/%d (mean/max), %d rejected",
+                turns, timeouts, failures, overBudget,
+                mean(totalCpuNanos) / 1e6, maxCpuNanos / 1e6,
+                mean(totalAllocatedBytes) / 1024, maxAllocatedBytes / 1024.0,
+                mean(totalEvents), maxEvents, getTotalRejections());
+    }
+}
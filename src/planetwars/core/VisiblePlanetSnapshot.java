@@ -42,7 +42,7 @@ final class VisiblePlanetSnapshot implements IVisiblePlanet {
 
     @Override
     public Set<IEdge> getEdges() {
-        // TODO: Return a copy here so they can't modify the set
+        // Read-only and shared between snapshots of the same planet
         return edges;
     }
 
@@ -75,4 +75,11 @@ final class VisiblePlanetSnapshot implements IVisiblePlanet {
     public List<IShuttle> getIncomingShuttles() {
         return new ArrayList<>(this.incomingShuttles);
     }
+
+    /**
+     * True if a snapshot taken now, with no shuttles incoming, would look the same as this one.
+     */
+    boolean isUnchanged(long population, Owner owner) {
+        return this.population == population && this.owner == owner && this.incomingShuttles.isEmpty();
+    }
 }
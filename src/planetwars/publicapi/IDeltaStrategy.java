@@ -0,0 +1,30 @@
+package planetwars.publicapi;
+
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A strategy that is told what changed since its previous turn, instead of being handed the whole map every turn.
+ * <p>
+ * Implement this instead of {@link IStrategy} to opt in. The engine then calls
+ * {@link #takeTurn(IGameView, ITurnDelta, IPlanetOperations, Queue)} and never the list-based
+ * {@link IStrategy#takeTurn(List, IPlanetOperations, Queue)}.
+ */
+public interface IDeltaStrategy extends IStrategy {
+    /**
+     * Method where students can react to what changed and schedule events to be executed.
+     *
+     * @param view             The whole system as the player sees it this turn; the same object every turn.
+     * @param delta            What changed since the player's previous turn.
+     * @param planetOperations Helper methods students can use to interact with the system.
+     * @param eventsToExecute  Queue students will add to in order to schedule events.
+     */
+    void takeTurn(IGameView view, ITurnDelta delta, IPlanetOperations planetOperations, Queue<IEvent> eventsToExecute);
+
+    /**
+     * Not called by the engine for delta strategies.
+     */
+    @Override
+    default void takeTurn(List<IPlanet> planets, IPlanetOperations planetOperations, Queue<IEvent> eventsToExecute) {
+    }
+}
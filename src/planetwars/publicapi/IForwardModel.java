@@ -0,0 +1,62 @@
+package planetwars.publicapi;
+
+import java.util.List;
+
+/**
+ * A private copy of the game that a strategy can play forward to try out moves.
+ * <p>
+ * Get one from {@link IPlanetOperations#createForwardModel(List)}. It follows the same rules as the real game, but it
+ * only knows what the strategy could see when it was created: planets that weren't visible are treated as empty
+ * neutral planets, and shuttles headed for them are unknown. Nothing done to a model affects the real game.
+ * <p>
+ * Forks are cheap, so a search can fork once per candidate move. A model is not thread-safe, but separate forks can be
+ * used from separate threads.
+ */
+public interface IForwardModel {
+    /**
+     * Get an independent copy of this model in its current state.
+     */
+    IForwardModel fork();
+
+    /**
+     * Send people from one of your planets to a neighboring planet, following the same rules as events returned by
+     * {@link IPlanetOperations#transferPeople}.
+     *
+     * @return True if the transfer was legal and the shuttle is now in flight.
+     */
+    boolean transferPeople(int sourcePlanetId, int destinationPlanetId, long numPeople);
+
+    /**
+     * Send people on behalf of either player, e.g. to try out the opponent's replies.
+     *
+     * @param player {@link Owner#SELF} or {@link Owner#OPPONENT}.
+     * @return True if the transfer was legal and the shuttle is now in flight.
+     */
+    boolean transferPeople(Owner player, int sourcePlanetId, int destinationPlanetId, long numPeople);
+
+    /**
+     * Let the given number of turns pass: planets grow, shuttles land and overcrowded planets shrink. Stops early if
+     * the game ends.
+     */
+    void advance(int turns);
+
+    /**
+     * Get the number of turns this model has been advanced since it was created from a snapshot.
+     */
+    int getTurnsAdvanced();
+
+    long getPopulation(int planetId);
+
+    Owner getOwner(int planetId);
+
+    /**
+     * True once one player has no planets and no shuttles left. If no opponent planet or shuttle was visible when the
+     * model was created, the model can't tell whether the opponent has been wiped out, so only your own defeat ends it.
+     */
+    boolean isOver();
+
+    /**
+     * Get the winner, or {@link Owner#NEUTRAL} if the game isn't over.
+     */
+    Owner getWinner();
+}
@@ -0,0 +1,29 @@
+package planetwars.publicapi;
+
+import java.util.List;
+
+/**
+ * The system as one player sees it.
+ * <p>
+ * The engine keeps one view per player up to date and hands the same object to every turn, replacing a planet's entry
+ * as that planet changes. Read it during the turn it is handed to; to keep something for later turns, keep the planets
+ * themselves, which never change.
+ */
+public interface IGameView {
+    /**
+     * Get the number of turns played so far.
+     */
+    int getTurn();
+
+    /**
+     * Get every planet, ordered by id. Planets the player can see implement {@link IVisiblePlanet}.
+     * <p>
+     * The list is read-only.
+     */
+    List<IPlanet> getPlanets();
+
+    /**
+     * Get a planet by id, or null if there is no such planet.
+     */
+    IPlanet getPlanet(int id);
+}
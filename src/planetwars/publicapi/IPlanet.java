@@ -18,6 +18,8 @@ public interface IPlanet {
      * <p>
      * {@link IEdge#getSourcePlanetId()} for each edge will be equal to {@link #getId()};
      * {@link IEdge#getDestinationPlanetId()} will be the id of each neighboring planet.
+     * <p>
+     * The set is read-only; copy it if you need to modify it.
      */
     Set<IEdge> getEdges();
 }
@@ -10,4 +10,28 @@ public interface IPlanetOperations {
      * Add this event to the queue in {@link IStrategy#takeTurn(List, IPlanetOperations, Queue)} for it to take effect.
      */
     IEvent transferPeople(IPlanet from, IPlanet to, long numPeople);
+
+    /**
+     * Get a single event scheduling many movements of people: entry {@code i} of each array describes one transfer.
+     * <p>
+     * The transfers are checked and carried out in order when the event is executed, just as if each had been queued
+     * as a separate {@link #transferPeople(IPlanet, IPlanet, long)} event; invalid ones are skipped. The arrays are
+     * copied, so they can be reused.
+     *
+     * @throws IllegalArgumentException If the arrays don't all have the same length.
+     */
+    IEvent transferPeople(int[] sourcePlanetIds, int[] destinationPlanetIds, long[] numPeople);
+
+    /**
+     * Get an empty, reusable builder for a batch of transfers.
+     */
+    ITransferBatch newTransferBatch();
+
+    /**
+     * Get a model of the game, as seen in {@code planets}, that can be forked and played forward to evaluate moves
+     * without writing a copy of the game rules.
+     *
+     * @param planets The planets passed to {@link IStrategy#takeTurn(List, IPlanetOperations, Queue)} this turn.
+     */
+    IForwardModel createForwardModel(List<IPlanet> planets);
 }
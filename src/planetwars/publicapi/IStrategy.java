@@ -6,6 +6,9 @@ import java.util.Queue;
 public interface IStrategy {
     /**
      * Method where students can observe the state of the system and schedule events to be executed.
+     * <p>
+     * A turn has one second. When it runs out the thread is interrupted and only the events queued so far are
+     * executed, so long searches should check {@link Thread#interrupted()} now and then and return when it is set.
      *
      * @param planets          The current state of the system.
      * @param planetOperations Helper methods students can use to interact with the system.
@@ -15,5 +18,14 @@ public interface IStrategy {
 
     String getName();
 
+    /**
+     * Called before the first turn with a seed derived from the match seed. Strategies that make random choices should
+     * seed their random number generator with it, so that matches can be reproduced.
+     *
+     * @param seed The seed for this strategy.
+     */
+    default void setSeed(long seed) {
+    }
+
     boolean compete();
 }
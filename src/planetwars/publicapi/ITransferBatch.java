@@ -0,0 +1,35 @@
+package planetwars.publicapi;
+
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Builder for many transfers that are queued as a single event.
+ * <p>
+ * Get one from {@link IPlanetOperations#newTransferBatch()} and keep it across turns: {@link #build()} copies the
+ * transfers added so far, so the builder can be cleared and filled again straight away.
+ */
+public interface ITransferBatch {
+    /**
+     * Add a transfer of people from one planet to a neighboring planet.
+     *
+     * @return This builder, for chaining
+     */
+    ITransferBatch add(int sourcePlanetId, int destinationPlanetId, long numPeople);
+
+    /**
+     * Get the number of transfers added since the last {@link #clear()}.
+     */
+    int size();
+
+    /**
+     * Remove all transfers.
+     */
+    void clear();
+
+    /**
+     * Get an event carrying the transfers added so far. Add it to the queue in
+     * {@link IStrategy#takeTurn(List, IPlanetOperations, Queue)} for it to take effect.
+     */
+    IEvent build();
+}
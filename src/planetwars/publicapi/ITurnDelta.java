@@ -0,0 +1,48 @@
+package planetwars.publicapi;
+
+import java.util.List;
+
+/**
+ * What changed, as far as one player can see, between their previous turn and this one.
+ * <p>
+ * Planets are reported as they are now, and are the same objects as in the view for this turn. A planet can appear in several lists, e.g. when it changes both owner and
+ * population. On the player's first turn every visible planet is in {@link #getRevealed()} and the other lists are
+ * empty.
+ */
+public interface ITurnDelta {
+    /**
+     * True if this is the player's first turn.
+     */
+    boolean isFirstTurn();
+
+    /**
+     * Get the planets that stayed visible and changed owner.
+     */
+    List<IVisiblePlanet> getOwnerChanges();
+
+    /**
+     * Get the planets that stayed visible and changed population.
+     */
+    List<IVisiblePlanet> getPopulationChanges();
+
+    /**
+     * Get the planets that became visible. Shuttles already headed for them are in their incoming shuttles only.
+     */
+    List<IVisiblePlanet> getRevealed();
+
+    /**
+     * Get the planets that are no longer visible.
+     */
+    List<IPlanet> getHidden();
+
+    /**
+     * Get the shuttles launched since the previous turn that are still in flight to a planet visible now.
+     */
+    List<IShuttle> getLaunched();
+
+    /**
+     * Get the shuttles that landed since the previous turn on a planet that was visible when they landed. They are
+     * reported as they were on landing, with 0 turns to arrival.
+     */
+    List<IShuttle> getLanded();
+}
@@ -30,6 +30,11 @@ public class RandomMoveStrategy implements IStrategy {
         }
     }
 
+    @Override
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     @Override
     public String getName() {
         return "Random";
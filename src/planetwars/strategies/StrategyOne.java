@@ -76,6 +76,11 @@ public class StrategyOne implements IStrategy{
     }
 
 
+    @Override
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     @Override
     public String getName () {
         return "Random";